@@ -0,0 +1,44 @@
+package io.kestra.storage.minio;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Construction of the attributes of a file, as done for every stat and listed entry.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileAttributesBenchmark {
+    private final Map<String, String> userMetadata = Map.of(
+        "content_type", "application/json",
+        "execution_id", "4wjtkzwVGBM9yKnjm3yv8r",
+        "flow_id", "hello-world"
+    );
+
+    private final Map<String, String> listedMetadata = Map.of(
+        "X-Amz-Meta-Content_type", "application/json",
+        "X-Amz-Meta-Execution_id", "4wjtkzwVGBM9yKnjm3yv8r",
+        "X-Amz-Meta-Flow_id", "hello-world",
+        "content-type", "application/octet-stream"
+    );
+
+    @Benchmark
+    public MinioFileAttributes fromStat() {
+        return new MinioFileAttributes("file.ion", false, 1024L, 1_700_000_000_000L, MetadataUtils.toRetrievedMetadata(userMetadata));
+    }
+
+    @Benchmark
+    public MinioFileAttributes fromListing() {
+        return new MinioFileAttributes("file.ion", false, 1024L, 1_700_000_000_000L, MetadataUtils.toRetrievedListedMetadata(listedMetadata));
+    }
+
+    @Benchmark
+    public MinioFileAttributes implicitDirectory() {
+        return MinioFileAttributes.implicitDirectory("directory");
+    }
+}
@@ -0,0 +1,81 @@
+package io.kestra.storage.minio;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-key work of the listings and the key manipulations of put, allByPrefix and deleteByPrefix.
+ * Listing benchmarks handle a full page of keys per operation.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ListingBenchmark {
+    private static final String TENANT = "main";
+    private static final String PREFIX = TENANT + "/company/team/_files/";
+
+    @Param({ "1000" })
+    public int keys;
+
+    private final MinioStorage storage = MinioStorage.builder().build();
+    private final URI prefixUri = URI.create("kestra:///company/team/_files/");
+    private final URI shortUri = URI.create("kestra:///company/team/flow/executions/4wjtkzwVGBM9yKnjm3yv8r/file.ion");
+    private final URI longUri = URI.create("kestra:///company/team/flow/executions/4wjtkzwVGBM9yKnjm3yv8r/" + "a".repeat(300) + ".ion");
+    private List<String> names;
+
+    @Setup
+    public void setup() {
+        names = new ArrayList<>(keys);
+        for (int i = 0; i < keys; i++) {
+            names.add(i % 10 == 0 ? PREFIX + "directory-" + i + "/" : PREFIX + "directory-" + (i / 10) + "/file-" + i + ".txt");
+        }
+    }
+
+    @Benchmark
+    public void isListedRecursive(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(MinioStorage.isListed(name, PREFIX, true, true));
+        }
+    }
+
+    @Benchmark
+    public void isListedDirectChildren(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(MinioStorage.isListed(name, PREFIX, false, true));
+        }
+    }
+
+    @Benchmark
+    public void toListedUri(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(MinioStorage.toListedUri(prefixUri, PREFIX, name));
+        }
+    }
+
+    @Benchmark
+    public void toDeletedUri(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(MinioStorage.toDeletedUri(TENANT, name));
+        }
+    }
+
+    @Benchmark
+    public URI limitShortName() throws IOException {
+        return storage.limit(shortUri);
+    }
+
+    @Benchmark
+    public URI limitLongName() throws IOException {
+        return storage.limit(longUri);
+    }
+}
@@ -0,0 +1,50 @@
+package io.kestra.storage.minio;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Metadata key conversions done on every put, get and stat.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MetadataBenchmark {
+    private final Map<String, String> metadata = Map.of(
+        "contentType", "application/json",
+        "executionId", "4wjtkzwVGBM9yKnjm3yv8r",
+        "namespace", "company.team",
+        "flowId", "hello-world",
+        "attemptNumber", "1"
+    );
+
+    private final Map<String, String> stored = MetadataUtils.toStoredMetadata(metadata);
+
+    private final Map<String, String> listed = Map.of(
+        "X-Amz-Meta-Content_type", "application/json",
+        "X-Amz-Meta-Execution_id", "4wjtkzwVGBM9yKnjm3yv8r",
+        "X-Amz-Meta-Namespace", "company.team",
+        "X-Amz-Meta-Flow_id", "hello-world",
+        "X-Amz-Meta-Attempt_number", "1",
+        "content-type", "application/octet-stream"
+    );
+
+    @Benchmark
+    public Map<String, String> toStoredMetadata() {
+        return MetadataUtils.toStoredMetadata(metadata);
+    }
+
+    @Benchmark
+    public Map<String, String> toRetrievedMetadata() {
+        return MetadataUtils.toRetrievedMetadata(stored);
+    }
+
+    @Benchmark
+    public Map<String, String> toRetrievedListedMetadata() {
+        return MetadataUtils.toRetrievedListedMetadata(listed);
+    }
+}
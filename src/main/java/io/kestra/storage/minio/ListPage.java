@@ -0,0 +1,14 @@
+package io.kestra.storage.minio;
+
+import java.util.List;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * A page of listing results.
+ *
+ * @param items the entries of this page.
+ * @param continuationToken the token to pass to fetch the next page, {@code null} on the last page.
+ */
+public record ListPage<T>(List<T> items, @Nullable String continuationToken) {
+}
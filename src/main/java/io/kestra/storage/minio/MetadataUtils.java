@@ -3,43 +3,179 @@ package io.kestra.storage.minio;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 import io.minio.Http;
 
+/**
+ * Translate metadata keys between Kestra ({@code someKey}) and S3 user metadata ({@code some_key}), S3 lowercasing
+ * the names of the headers carrying them.
+ * <p>
+ * Metadata uses a handful of keys, translated keys are cached so that puts, stats and listings don't translate the same
+ * keys again and again.
+ */
 public class MetadataUtils {
-    private static final Pattern METADATA_KEY_WORD_SEPARATOR = Pattern.compile("_([a-z])");
-    private static final Pattern UPPERCASE = Pattern.compile("([A-Z])");
+    private static final String USER_METADATA_PREFIX = "x-amz-meta-";
+    private static final int KEY_CACHE_MAX_SIZE = 1024;
+
+    private static final KeyCache STORED_KEYS = new KeyCache(MetadataUtils::toStoredKey);
+    private static final KeyCache RETRIEVED_KEYS = new KeyCache(MetadataUtils::toRetrievedKey);
+    private static final KeyCache RETRIEVED_HEADERS = new KeyCache(header -> toRetrievedKey(header.substring(USER_METADATA_PREFIX.length())));
 
     public static Map<String, String> toStoredMetadata(Map<String, String> metadata) {
         if (metadata == null) {
             return null;
         }
-        return metadata.entrySet().stream()
-            .map(entry -> Map.entry(UPPERCASE.matcher(entry.getKey()).replaceAll("_$1").toLowerCase(), entry.getValue()))
-            .collect(HashMap::new, (m, v) -> m.put(v.getKey(), v.getValue()), HashMap::putAll);
+        Map<String, String> stored = HashMap.newHashMap(metadata.size());
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            stored.put(STORED_KEYS.get(entry.getKey()), entry.getValue());
+        }
+        return stored;
     }
 
     public static Map<String, String> toRetrievedMetadata(Map<String, String> metadata) {
         if (metadata == null) {
             return null;
         }
-        return metadata.entrySet().stream()
-            .map(entry -> Map.entry(toRetrievedKey(entry.getKey()), entry.getValue()))
-            .collect(HashMap::new, (m, v) -> m.put(v.getKey(), v.getValue()), HashMap::putAll);
+        Map<String, String> retrieved = HashMap.newHashMap(metadata.size());
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            retrieved.put(RETRIEVED_KEYS.get(entry.getKey()), entry.getValue());
+        }
+        return retrieved;
     }
 
     public static Map<String, String> toRetrievedMetadata(Http.Headers metadata) {
         if (metadata == null) {
             return null;
         }
-        return metadata.entrySet().stream()
-            .map(entry -> Map.entry(toRetrievedKey(entry.getKey()), entry.getValue()))
-            .collect(HashMap::new, (m, v) -> m.put(v.getKey(), v.getValue()), HashMap::putAll);
+        Map<String, String> retrieved = new HashMap<>();
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            retrieved.put(RETRIEVED_KEYS.get(entry.getKey()), entry.getValue());
+        }
+        return retrieved;
+    }
+
+    /**
+     * Listing entries return the raw user metadata headers (e.g. {@code X-Amz-Meta-Foo}) mixed with system headers
+     * like the content type, only the prefixed ones are user metadata.
+     */
+    public static Map<String, String> toRetrievedListedMetadata(Map<String, String> metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        return toRetrievedPrefixedMetadata(metadata.entrySet());
     }
 
-    private static String toRetrievedKey(String key) {
-        return METADATA_KEY_WORD_SEPARATOR.matcher(key.toLowerCase(Locale.US))
-            .replaceAll(matchResult -> matchResult.group(1).toUpperCase());
+    /**
+     * Extract the user metadata from the headers of an object response, e.g. a GET, sparing a stat request.
+     */
+    public static Map<String, String> toRetrievedHeaderMetadata(Http.Headers headers) {
+        if (headers == null) {
+            return null;
+        }
+        return toRetrievedPrefixedMetadata(headers.entrySet());
+    }
+
+    private static Map<String, String> toRetrievedPrefixedMetadata(Iterable<Map.Entry<String, String>> headers) {
+        Map<String, String> retrieved = new HashMap<>();
+        for (Map.Entry<String, String> header : headers) {
+            String key = header.getKey();
+            if (key.regionMatches(true, 0, USER_METADATA_PREFIX, 0, USER_METADATA_PREFIX.length())) {
+                retrieved.put(RETRIEVED_HEADERS.get(key), header.getValue());
+            }
+        }
+        return retrieved;
+    }
+
+    /**
+     * {@code someKey} to {@code some_key}: an underscore before each ASCII uppercase letter, then lowercase.
+     */
+    static String toStoredKey(String key) {
+        int length = key.length();
+        int i = 0;
+        while (i < length && !needsStoredTranslation(key.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return key;
+        }
+
+        StringBuilder stored = new StringBuilder(length + 4).append(key, 0, i);
+        for (; i < length; i++) {
+            char c = key.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                stored.append('_');
+            }
+            stored.append(c);
+        }
+        return stored.toString().toLowerCase(Locale.US);
+    }
+
+    /**
+     * {@code some_key} to {@code someKey}: lowercase, then each underscore followed by an ASCII lowercase letter is
+     * replaced by the letter in uppercase.
+     */
+    static String toRetrievedKey(String key) {
+        int length = key.length();
+        int i = 0;
+        while (i < length && !needsRetrievedTranslation(key, i)) {
+            i++;
+        }
+        if (i == length) {
+            return key;
+        }
+
+        String lowercase = key.toLowerCase(Locale.US);
+        StringBuilder retrieved = new StringBuilder(lowercase.length());
+        for (int j = 0; j < lowercase.length(); j++) {
+            char c = lowercase.charAt(j);
+            if (c == '_' && j + 1 < lowercase.length()) {
+                char next = lowercase.charAt(j + 1);
+                if (next >= 'a' && next <= 'z') {
+                    retrieved.append((char) (next - ('a' - 'A')));
+                    j++;
+                    continue;
+                }
+            }
+            retrieved.append(c);
+        }
+        return retrieved.toString();
+    }
+
+    private static boolean needsStoredTranslation(char c) {
+        return (c >= 'A' && c <= 'Z') || c >= 128;
+    }
+
+    private static boolean needsRetrievedTranslation(String key, int index) {
+        char c = key.charAt(index);
+        if (c == '_') {
+            return index + 1 < key.length() && Character.isLetter(key.charAt(index + 1));
+        }
+        return Character.isUpperCase(c) || c >= 128;
+    }
+
+    /**
+     * Memoized translation, keys beyond {@code KEY_CACHE_MAX_SIZE} being translated without being remembered.
+     */
+    private static class KeyCache {
+        private final Map<String, String> keys = new ConcurrentHashMap<>();
+        private final UnaryOperator<String> translation;
+
+        KeyCache(UnaryOperator<String> translation) {
+            this.translation = translation;
+        }
+
+        String get(String key) {
+            String translated = keys.get(key);
+            if (translated != null) {
+                return translated;
+            }
+            translated = translation.apply(key);
+            if (keys.size() < KEY_CACHE_MAX_SIZE) {
+                keys.putIfAbsent(key, translated);
+            }
+            return translated;
+        }
     }
 }
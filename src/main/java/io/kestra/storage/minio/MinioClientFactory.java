@@ -17,6 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import io.kestra.storage.minio.domains.ProxyConfiguration;
 
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import io.minio.credentials.AwsConfigProvider;
 import io.minio.credentials.AwsEnvironmentProvider;
@@ -26,6 +27,8 @@ import io.minio.credentials.MinioEnvironmentProvider;
 import io.minio.credentials.Provider;
 import io.minio.credentials.StaticProvider;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
 import okhttp3.OkHttpClient;
 
 public class MinioClientFactory {
@@ -33,6 +36,14 @@ public class MinioClientFactory {
     private static final Logger log = LoggerFactory.getLogger(MinioClientFactory.class);
 
     public static MinioClient of(final MinioConfig config) {
+        try {
+            return of(config, buildHttpClientWithTls(config));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static MinioClient of(final MinioConfig config, final OkHttpClient httpClient) {
         try {
             MinioClient.Builder bdr;
             bdr = MinioClient.builder()
@@ -44,7 +55,7 @@ public class MinioClientFactory {
 
             bdr.credentialsProvider(getCredentialProvider(config));
 
-            bdr.httpClient(buildHttpClientWithTls(config));
+            bdr.httpClient(httpClient);
 
             MinioClient build = bdr.build();
 
@@ -58,6 +69,53 @@ public class MinioClientFactory {
         }
     }
 
+    /**
+     * Asynchronous client sharing the connection pool of the given HTTP client, used for the operations
+     * issuing many concurrent requests (e.g. the parts of a multipart upload).
+     */
+    public static MinioAsyncClient asyncOf(final MinioConfig config, final OkHttpClient httpClient) {
+        try {
+            MinioAsyncClient.Builder bdr;
+            bdr = MinioAsyncClient.builder()
+                .endpoint(config.getEndpoint(), config.getPort(), config.isSecure());
+
+            if (config.getRegion() != null) {
+                bdr.region(config.getRegion());
+            }
+
+            bdr.credentialsProvider(getCredentialProvider(config));
+
+            bdr.httpClient(httpClient);
+
+            MinioAsyncClient build = bdr.build();
+
+            if (config.isVhost()) {
+                build.enableVirtualStyleEndpoint();
+            }
+
+            return build;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static OkHttpClient httpClient(final MinioConfig config) {
+        try {
+            return buildHttpClientWithTls(config);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * HTTP client whose calls are observed by listeners of the given factory, e.g. to time their network phases.
+     */
+    public static OkHttpClient httpClient(final MinioConfig config, final EventListener.Factory eventListenerFactory) {
+        return httpClient(config).newBuilder()
+            .eventListenerFactory(eventListenerFactory)
+            .build();
+    }
+
     private static OkHttpClient createHttpClient(MinioConfig config) {
         OkHttpClient.Builder builder = new OkHttpClient.Builder();
         ProxyConfiguration proxyConf = config.getProxyConfiguration();
@@ -93,7 +151,20 @@ public class MinioClientFactory {
         // typical k8s/Istio idle-connection kill timers (~10–60s), preventing stale-connection SocketException.
         var keepAlive = config.getHttpConnectionKeepAlive();
         long keepAliveMs = keepAlive != null ? keepAlive.toMillis() : 30_000L;
-        builder.connectionPool(new ConnectionPool(5, keepAliveMs, TimeUnit.MILLISECONDS));
+        int maxIdleConnections = config.getHttpMaxIdleConnections() != null ? config.getHttpMaxIdleConnections() : 5;
+        builder.connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMs, TimeUnit.MILLISECONDS));
+
+        // only bounds the asynchronous calls, e.g. the parts of a multipart upload
+        if (config.getHttpMaxRequests() != null || config.getHttpMaxRequestsPerHost() != null) {
+            Dispatcher dispatcher = new Dispatcher();
+            if (config.getHttpMaxRequests() != null) {
+                dispatcher.setMaxRequests(config.getHttpMaxRequests());
+            }
+            if (config.getHttpMaxRequestsPerHost() != null) {
+                dispatcher.setMaxRequestsPerHost(config.getHttpMaxRequestsPerHost());
+            }
+            builder.dispatcher(dispatcher);
+        }
 
         return builder.build();
     }
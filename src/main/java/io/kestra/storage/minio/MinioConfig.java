@@ -3,7 +3,9 @@ package io.kestra.storage.minio;
 import java.time.Duration;
 
 import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.storage.minio.domains.DiskCacheConfiguration;
 import io.kestra.storage.minio.domains.ProxyConfiguration;
+import io.kestra.storage.minio.domains.RetryConfiguration;
 import io.kestra.storage.minio.domains.SslOptions;
 import io.kestra.storage.minio.internal.BytesSize;
 
@@ -35,9 +37,113 @@ public interface MinioConfig {
     @PluginProperty
     boolean isVhost();
 
+    /**
+     * Size of the first parts of an upload whose length is unknown, later parts growing as more bytes are read.
+     * Uploads of a known length use the smallest part size fitting the object in 10,000 parts, but never less than this.
+     */
     @PluginProperty(group = "advanced")
     BytesSize getPartSize();
 
+    /**
+     * Maximum number of directory prefixes remembered as existing by this storage instance.
+     * A known directory lets {@code put} skip the directory marker lookup and creation requests.
+     * Set to {@code 0} to disable the cache.
+     */
+    @PluginProperty(group = "advanced")
+    int getDirectoryCacheMaxSize();
+
+    /**
+     * When enabled, directories are derived from the common prefixes of the object keys instead of
+     * zero-byte directory marker objects. Markers are only written for explicitly created directories,
+     * which saves one request per parent directory on the first write in a new tree.
+     */
+    @PluginProperty(group = "advanced")
+    boolean isImplicitDirectories();
+
+    /**
+     * Duration during which the attributes of an object, or the fact that it doesn't exist, are remembered by this
+     * storage instance, saving the stat request of {@code exists} and {@code getAttributes}.
+     * Writes, deletes and moves through this instance invalidate the affected entries, but changes made by other
+     * instances are only seen once the entries expire. Disabled when {@code null}.
+     */
+    @Nullable
+    @PluginProperty(group = "advanced")
+    Duration getAttributesCacheTtl();
+
+    /**
+     * Maximum number of objects whose attributes are remembered when {@code attributesCacheTtl} is set.
+     */
+    @PluginProperty(group = "advanced")
+    int getAttributesCacheMaxSize();
+
+    /**
+     * When enabled, {@code delete} trusts the key type instead of looking the object up first: only URIs ending with
+     * a {@code /} are deleted as directories, other URIs with a single delete request.
+     * This saves one request per deleted file, but S3 acknowledges the deletion of missing keys: deleting a missing
+     * file returns {@code true} in this mode.
+     */
+    @PluginProperty(group = "advanced")
+    boolean isFastDelete();
+
+    /**
+     * Maximum number of concurrent server-side copies when moving a directory.
+     */
+    @PluginProperty(group = "advanced")
+    int getMoveConcurrency();
+
+    /**
+     * Number of parts of a single {@code put} uploaded concurrently.
+     * Up to {@code uploadParallelism + 1} part buffers are held in memory per upload.
+     * The default of {@code 1} uploads the parts one after another.
+     */
+    @PluginProperty(group = "advanced")
+    int getUploadParallelism();
+
+    /**
+     * Maximum size of the idle part buffers kept for reuse by the uploads of this storage instance.
+     * Set to {@code 0} to allocate a new buffer for each part.
+     */
+    @PluginProperty(group = "advanced")
+    BytesSize getPartBufferPoolSize();
+
+    /**
+     * Maximum bytes of part buffers held at once by all the concurrent uploads of this storage instance.
+     * An upload that would exceed it waits until other uploads release their buffers.
+     * When {@code null}, uploads are not limited.
+     */
+    @Nullable
+    @PluginProperty(group = "advanced")
+    BytesSize getUploadMemoryBudget();
+
+    /**
+     * Number of range requests issued concurrently when downloading an object larger than
+     * {@code parallelDownloadThreshold}. Up to this many {@code downloadPartSize} chunks are held in memory per download.
+     * The default of {@code 1} downloads objects with a single request.
+     */
+    @PluginProperty(group = "advanced")
+    int getDownloadParallelism();
+
+    /**
+     * Size of the range requests of a parallel download.
+     */
+    @PluginProperty(group = "advanced")
+    BytesSize getDownloadPartSize();
+
+    /**
+     * Minimum object size for a download to be split in concurrent range requests when {@code downloadParallelism}
+     * is greater than {@code 1}.
+     */
+    @PluginProperty(group = "advanced")
+    BytesSize getParallelDownloadThreshold();
+
+    /**
+     * Local disk cache of the downloaded files, disabled when {@code null}.
+     * A cached file is revalidated against the ETag of its object before being served, unless validated within its TTL.
+     */
+    @Nullable
+    @PluginProperty(group = "advanced")
+    DiskCacheConfiguration getDiskCache();
+
     @PluginProperty(group = "advanced")
     ProxyConfiguration getProxyConfiguration();
 
@@ -88,4 +194,47 @@ public interface MinioConfig {
     @Nullable
     @PluginProperty(group = "advanced")
     Duration getHttpConnectionKeepAlive();
+
+    /**
+     * Maximum number of idle HTTP connections kept in the OkHttp connection pool for reuse.
+     * Defaults to {@code 5} when {@code null}; raise it when many tasks access the storage concurrently so that
+     * connections are reused instead of being opened and closed again.
+     */
+    @Nullable
+    @PluginProperty(group = "advanced")
+    Integer getHttpMaxIdleConnections();
+
+    /**
+     * Maximum number of concurrent asynchronous HTTP requests, e.g. parallel upload parts.
+     * When {@code null}, OkHttp's default of 64 is used.
+     */
+    @Nullable
+    @PluginProperty(group = "advanced")
+    Integer getHttpMaxRequests();
+
+    /**
+     * Maximum number of concurrent asynchronous HTTP requests to the MinIO host, other requests being queued.
+     * When {@code null}, OkHttp's default of 5 is used.
+     */
+    @Nullable
+    @PluginProperty(group = "advanced")
+    Integer getHttpMaxRequestsPerHost();
+
+    /**
+     * HTTP requests to MinIO taking longer than this are logged with the duration of their network phases (DNS,
+     * connect, TLS handshake, first byte, transfer) and the storage operation and key they were sent for.
+     * Slow requests are not logged when {@code null}.
+     */
+    @Nullable
+    @PluginProperty(group = "advanced")
+    Duration getHttpSlowRequestThreshold();
+
+    /**
+     * Retries of the idempotent S3 requests (stat, get, list, copy, delete, upload part) throttled or failed by the
+     * server or the network, with an exponential backoff, jitter and a retry budget shared by the whole storage.
+     * When {@code null}, up to 3 attempts are made.
+     */
+    @Nullable
+    @PluginProperty(group = "advanced")
+    RetryConfiguration getRetry();
 }
@@ -1,37 +1,115 @@
 package io.kestra.storage.minio;
 
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 
 import io.kestra.core.storages.FileAttributes;
 
 import io.minio.StatObjectResponse;
+import io.minio.messages.Item;
+import jakarta.annotation.Nullable;
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
 
 @Value
 public class MinioFileAttributes implements FileAttributes {
     String fileName;
-    StatObjectResponse stat;
     boolean isDirectory;
-    Map<String, String> metadata;
+    long size;
+    long lastModifiedTime;
+    // translated on first access, most callers never read the metadata
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    Supplier<Map<String, String>> metadata;
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    StatObjectResponse stat;
 
     @Builder
     public MinioFileAttributes(String fileName, StatObjectResponse stat, boolean isDirectory) {
+        this(
+            fileName,
+            isDirectory,
+            stat.size(),
+            stat.lastModified().toInstant().toEpochMilli(),
+            lazy(stat.userMetadata(), MetadataUtils::toRetrievedMetadata),
+            stat
+        );
+    }
+
+    @VisibleForTesting
+    MinioFileAttributes(String fileName, boolean isDirectory, long size, long lastModifiedTime, Map<String, String> metadata) {
+        this(fileName, isDirectory, size, lastModifiedTime, Suppliers.ofInstance(metadata), null);
+    }
+
+    private MinioFileAttributes(
+        String fileName,
+        boolean isDirectory,
+        long size,
+        long lastModifiedTime,
+        Supplier<Map<String, String>> metadata,
+        @Nullable StatObjectResponse stat
+    ) {
         this.fileName = fileName;
-        this.stat = stat;
         this.isDirectory = isDirectory;
+        this.size = size;
+        this.lastModifiedTime = lastModifiedTime;
+        this.metadata = metadata;
+        this.stat = stat;
+    }
 
-        this.metadata = MetadataUtils.toRetrievedMetadata(stat.userMetadata());
+    /**
+     * Attributes of a file built from a listing entry retrieved with its user metadata, sparing a stat request.
+     */
+    public static MinioFileAttributes of(String fileName, Item item) {
+        return new MinioFileAttributes(
+            fileName,
+            false,
+            item.size(),
+            item.lastModified().toInstant().toEpochMilli(),
+            lazy(item.userMetadata(), MetadataUtils::toRetrievedListedMetadata),
+            null
+        );
+    }
+
+    /**
+     * Attributes of a directory that only exists as a common prefix of other objects (no marker object).
+     */
+    public static MinioFileAttributes implicitDirectory(String fileName) {
+        return new MinioFileAttributes(fileName, true, 0L, 0L, Map.of());
+    }
+
+    /**
+     * @return the stat response the attributes were built from, {@code null} for listing entries and implicit
+     * directories which are built without any stat request.
+     * @deprecated use the attributes of {@link FileAttributes} instead.
+     */
+    @Deprecated
+    @Nullable
+    public StatObjectResponse getStat() {
+        return stat;
     }
 
     @Override
-    public long getLastModifiedTime() {
-        return stat.lastModified().toInstant().toEpochMilli();
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    public Map<String, String> getMetadata() {
+        return metadata.get();
     }
 
     @Override
     public long getCreationTime() {
-        return stat.lastModified().toInstant().toEpochMilli();
+        return lastModifiedTime;
     }
 
     @Override
@@ -39,13 +117,7 @@ public class MinioFileAttributes implements FileAttributes {
         return isDirectory ? FileAttributes.FileType.Directory : FileAttributes.FileType.File;
     }
 
-    @Override
-    public long getSize() {
-        return stat.size();
-    }
-
-    @Override
-    public Map<String, String> getMetadata() {
-        return metadata;
+    private static <T> Supplier<Map<String, String>> lazy(T source, Function<T, Map<String, String>> translation) {
+        return Suppliers.memoize(() -> translation.apply(source));
     }
 }
@@ -3,35 +3,59 @@ package io.kestra.storage.minio;
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang3.RandomStringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Streams;
 
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.storages.FileAttributes;
 import io.kestra.core.storages.StorageInterface;
 import io.kestra.core.storages.StorageObject;
+import io.kestra.storage.minio.domains.DiskCacheConfiguration;
 import io.kestra.storage.minio.domains.ProxyConfiguration;
+import io.kestra.storage.minio.domains.RetryConfiguration;
 import io.kestra.storage.minio.domains.SslOptions;
+import io.kestra.storage.minio.internal.AttributesCache;
 import io.kestra.storage.minio.internal.BytesSize;
+import io.kestra.storage.minio.internal.DirectoryCache;
+import io.kestra.storage.minio.internal.DiskCache;
+import io.kestra.storage.minio.internal.HttpCallListener;
+import io.kestra.storage.minio.internal.HttpConnectionStats;
+import io.kestra.storage.minio.internal.MinioMetrics;
+import io.kestra.storage.minio.internal.MultipartUploader;
+import io.kestra.storage.minio.internal.ObjectRemover;
+import io.kestra.storage.minio.internal.ParallelRangeInputStream;
+import io.kestra.storage.minio.internal.PartBufferPool;
+import io.kestra.storage.minio.internal.RangeReadChannel;
+import io.kestra.storage.minio.internal.RequestMetricsInterceptor;
+import io.kestra.storage.minio.internal.RetryInterceptor;
+import io.kestra.storage.minio.internal.StreamLength;
+import io.kestra.storage.minio.internal.UploadMemoryBudget;
 
 import io.minio.*;
 import io.minio.errors.*;
-import io.minio.messages.DeleteRequest;
-import io.minio.messages.DeleteResult;
 import io.minio.messages.Item;
 import jakarta.annotation.Nullable;
 import lombok.AccessLevel;
@@ -40,6 +64,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.jackson.Jacksonized;
+import okhttp3.OkHttpClient;
 
 import static io.kestra.core.utils.Rethrow.throwFunction;
 
@@ -54,6 +79,11 @@ import static io.kestra.core.utils.Rethrow.throwFunction;
 public class MinioStorage implements StorageInterface, MinioConfig {
     private static final Logger LOG = LoggerFactory.getLogger(MinioStorage.class);
     private static final int MAX_OBJECT_NAME_LENGTH = 255;
+    private static final int LIST_STAT_CONCURRENCY = 16;
+    private static final int MOVE_CONCURRENT_DELETE_BATCHES = 2;
+    private static final int DELETE_CONCURRENT_BATCHES = 4;
+    private static final int SEEKABLE_BLOCK_SIZE = 256 * 1024;
+    private static final int SEEKABLE_CACHED_BLOCKS = 16;
 
     private String endpoint;
     private int port;
@@ -66,10 +96,55 @@ public class MinioStorage implements StorageInterface, MinioConfig {
     private ProxyConfiguration proxyConfiguration;
     @Builder.Default
     private BytesSize partSize = new BytesSize(1024 * 1024 * 5);
+    @Builder.Default
+    private int directoryCacheMaxSize = 10_000;
+    private boolean implicitDirectories;
+    private boolean fastDelete;
+    @Builder.Default
+    private int moveConcurrency = 16;
+    @Builder.Default
+    private int uploadParallelism = 1;
+    @Builder.Default
+    private BytesSize partBufferPoolSize = new BytesSize(1024 * 1024 * 64);
+    @jakarta.annotation.Nullable
+    private BytesSize uploadMemoryBudget;
+    @Builder.Default
+    private int downloadParallelism = 1;
+    @Builder.Default
+    private BytesSize downloadPartSize = new BytesSize(1024 * 1024 * 8);
+    @Builder.Default
+    private BytesSize parallelDownloadThreshold = new BytesSize(1024 * 1024 * 64);
+    @jakarta.annotation.Nullable
+    private DiskCacheConfiguration diskCache;
+    @jakarta.annotation.Nullable
+    private Duration attributesCacheTtl;
+    @Builder.Default
+    private int attributesCacheMaxSize = 10_000;
 
     @Getter(AccessLevel.PRIVATE)
     private MinioClient minioClient;
 
+    @Getter(AccessLevel.PRIVATE)
+    private MinioAsyncClient minioAsyncClient;
+
+    @Getter(AccessLevel.PRIVATE)
+    private DirectoryCache directoryCache;
+
+    @Getter(AccessLevel.PRIVATE)
+    private AttributesCache attributesCache;
+
+    @Getter(AccessLevel.PRIVATE)
+    private PartBufferPool partBufferPool;
+
+    @Getter(AccessLevel.PRIVATE)
+    private MinioMetrics metrics;
+
+    @Getter(AccessLevel.PRIVATE)
+    private DiskCache localCache;
+
+    @Getter(AccessLevel.PRIVATE)
+    private ExecutorService asyncExecutor;
+
     private String caPem;
 
     private String clientPem;
@@ -88,130 +163,468 @@ public class MinioStorage implements StorageInterface, MinioConfig {
     @jakarta.annotation.Nullable
     private Duration httpConnectionKeepAlive;
 
+    @jakarta.annotation.Nullable
+    private Integer httpMaxIdleConnections;
+
+    @jakarta.annotation.Nullable
+    private Integer httpMaxRequests;
+
+    @jakarta.annotation.Nullable
+    private Integer httpMaxRequestsPerHost;
+
+    @jakarta.annotation.Nullable
+    private Duration httpSlowRequestThreshold;
+
+    @jakarta.annotation.Nullable
+    @jakarta.validation.Valid
+    private RetryConfiguration retry;
+
     /**
      * {@inheritDoc}
      **/
     @Override
     public void init() {
-        this.minioClient = MinioClientFactory.of(this);
+        this.metrics = new MinioMetrics(this.bucket);
+        HttpConnectionStats connectionStats = new HttpConnectionStats();
+        HttpCallListener.Factory callListener = new HttpCallListener.Factory(this.metrics, connectionStats, this.httpSlowRequestThreshold);
+        OkHttpClient httpClient = MinioClientFactory.httpClient(this, callListener)
+            .newBuilder()
+            // outermost, so that each attempt is counted as a request
+            .addInterceptor(new RetryInterceptor(this.metrics, Optional.ofNullable(this.retry).orElseGet(() -> RetryConfiguration.builder().build())))
+            .addInterceptor(new RequestMetricsInterceptor(this.metrics))
+            .build();
+        this.metrics.bindHttpClient(httpClient, connectionStats);
+        this.minioClient = MinioClientFactory.of(this, httpClient);
+        this.minioAsyncClient = MinioClientFactory.asyncOf(this, httpClient);
+        this.asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.directoryCache = new DirectoryCache(this.directoryCacheMaxSize);
+        this.attributesCache = new AttributesCache(this.attributesCacheMaxSize, this.attributesCacheTtl);
+        UploadMemoryBudget budget = null;
+        if (this.uploadMemoryBudget != null) {
+            budget = new UploadMemoryBudget(this.uploadMemoryBudget.value());
+            this.metrics.bindUploadMemoryBudget(budget);
+        }
+        this.partBufferPool = new PartBufferPool(this.partSize.value(), this.partBufferPoolSize.value(), budget);
+        this.metrics.bindPartBufferPool(this.partBufferPool);
+        if (this.diskCache != null) {
+            try {
+                this.localCache = new DiskCache(
+                    Path.of(Optional.ofNullable(this.diskCache.getPath()).orElse(System.getProperty("java.io.tmpdir"))),
+                    this.diskCache.getMaxSize().value(),
+                    this.diskCache.getTtl()
+                );
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     @Override
     public InputStream get(String tenantId, @Nullable String namespace, URI uri) throws IOException {
-        return getFromMinio(uri, getPath(tenantId, uri));
+        return getFromMinio(uri, getPath(tenantId, uri)).content();
     }
 
     @Override
     public InputStream getInstanceResource(String namespace, URI uri) throws IOException {
-        return getFromMinio(uri, getPath(uri));
+        return getFromMinio(uri, getPath(uri)).content();
+    }
+
+    private Download getFromMinio(URI uri, String path) throws IOException {
+        return metrics.record("get", () ->
+        {
+            if (localCache == null) {
+                return downloadFromMinio(uri, path);
+            }
+
+            DiskCache.Entry entry = localCache.lookup(path);
+            InputStream cached = entry != null && isUpToDate(entry) ? localCache.open(entry) : null;
+            if (cached != null) {
+                return new Download(entry::metadata, entry.etag(), cached);
+            }
+            Download download = downloadFromMinio(uri, path);
+            Map<String, String> metadata = download.metadata().get();
+            return new Download(
+                () -> metadata,
+                download.etag(),
+                localCache.caching(path, unquote(download.etag()), metadata, download.content())
+            );
+        });
+    }
+
+    /**
+     * A cached file is up to date while its entry is fresh or the object still has the same ETag, checked with a stat
+     * which is much cheaper than downloading the object again.
+     */
+    private boolean isUpToDate(DiskCache.Entry entry) {
+        if (localCache.isFresh(entry)) {
+            return true;
+        }
+        try {
+            StatObjectResponse stat = this.minioClient.statObject(
+                StatObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(entry.key())
+                    .build()
+            );
+            if (entry.etag().equals(unquote(stat.etag()))) {
+                localCache.revalidated(entry);
+                return true;
+            }
+        } catch (Exception e) {
+            LOG.debug("Unable to revalidate the cached file of '{}'", entry.key(), e);
+        }
+        localCache.invalidate(entry.key());
+        return false;
+    }
+
+    @Nullable
+    private static String unquote(@Nullable String etag) {
+        return etag == null ? null : etag.replace("\"", "");
+    }
+
+    private void invalidateLocalCache(String path) {
+        if (localCache != null) {
+            localCache.invalidate(path);
+        }
     }
 
-    private GetObjectResponse getFromMinio(URI uri, String path) throws IOException {
+    private void invalidateLocalCachePrefix(String prefix) {
+        if (localCache != null) {
+            localCache.invalidatePrefix(prefix);
+        }
+    }
+
+    private Download downloadFromMinio(URI uri, String path) throws IOException {
         try {
-            return this.minioClient.getObject(
+            if (downloadParallelism > 1) {
+                Download download = getRangesFromMinio(path);
+                if (download != null) {
+                    return download;
+                }
+            }
+
+            GetObjectResponse response = this.minioClient.getObject(
                 GetObjectArgs.builder()
                     .bucket(this.bucket)
                     .object(path)
                     .build()
             );
+            return Download.of(response.headers(), response);
         } catch (MinioException e) {
             throw reThrowMinioStorageException(uri.toString(), e);
+        } catch (IOException | IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
         }
     }
 
-    @Override
-    public StorageObject getWithMetadata(String tenantId, @Nullable String namespace, URI uri) throws IOException {
+    /**
+     * Download with concurrent range requests, the first range request giving the object size through its
+     * {@code Content-Range} header so that no stat is needed.
+     *
+     * @return the download, or {@code null} when the object can't be downloaded by ranges (e.g. it is empty).
+     */
+    private Download getRangesFromMinio(String path) throws Exception {
+        long chunkSize = downloadPartSize.value();
+        GetObjectResponse first;
         try {
+            first = this.minioClient.getObject(
+                GetObjectArgs.builder()
+                    .bucket(this.bucket)
+                    .object(path)
+                    .offset(0L)
+                    .length(chunkSize)
+                    .build()
+            );
+        } catch (ErrorResponseException e) {
+            if ("InvalidRange".equals(e.errorResponse().code())) {
+                return null;
+            }
+            throw e;
+        }
+
+        long size = objectSize(header(first.headers(), "Content-Range"));
+        if (size <= chunkSize) {
+            // whole object in the first range, or a server ignoring ranges
+            return Download.of(first.headers(), first);
+        }
+
+        String etag = header(first.headers(), "ETag");
+        InputStream content;
+        if (size < parallelDownloadThreshold.value()) {
+            GetObjectArgs.Builder rest = GetObjectArgs.builder()
+                .bucket(this.bucket)
+                .object(path)
+                .offset(chunkSize);
+            if (etag != null) {
+                rest.matchETag(etag);
+            }
+            content = new SequenceInputStream(first, this.minioClient.getObject(rest.build()));
+        } else {
+            content = new ParallelRangeInputStream(
+                this.minioClient,
+                this.bucket,
+                path,
+                etag,
+                size,
+                Math.toIntExact(chunkSize),
+                downloadParallelism,
+                first
+            );
+        }
+        return Download.of(first.headers(), content);
+    }
+
+    private static long objectSize(@Nullable String contentRange) {
+        // e.g. "bytes 0-8388607/123456789"
+        if (contentRange == null || !contentRange.contains("/") || contentRange.endsWith("/*")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(contentRange.lastIndexOf('/') + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    @Nullable
+    private static String header(Http.Headers headers, String name) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Random access to a file, e.g. to read the footer of a Parquet file or the first lines of a large file.
+     * Only the blocks covering the read bytes are downloaded, through range requests.
+     */
+    public SeekableByteChannel getSeekable(String tenantId, @Nullable String namespace, URI uri) throws IOException {
+        return metrics.record("getSeekable", () ->
+        {
             String path = getPath(tenantId, uri);
-            Map<String, String> metadata = MetadataUtils.toRetrievedMetadata(
-                this.minioClient.statObject(
+            try {
+                StatObjectResponse stat = this.minioClient.statObject(
                     StatObjectArgs.builder()
-                        .bucket(this.bucket)
+                        .bucket(bucket)
                         .object(path)
                         .build()
-                ).userMetadata()
-            );
+                );
+                return new RangeReadChannel(this.minioClient, bucket, path, stat.etag(), stat.size(), SEEKABLE_BLOCK_SIZE, SEEKABLE_CACHED_BLOCKS);
+            } catch (MinioException e) {
+                throw reThrowMinioStorageException(uri.toString(), e);
+            }
+        });
+    }
 
-            return new StorageObject(metadata, this.get(tenantId, namespace, uri));
-        } catch (MinioException e) {
-            throw reThrowMinioStorageException(uri.toString(), e);
+    /**
+     * @param metadata the user metadata, only converted when needed.
+     */
+    private record Download(Supplier<Map<String, String>> metadata, @Nullable String etag, InputStream content) {
+        static Download of(Http.Headers headers, InputStream content) {
+            return new Download(() -> MetadataUtils.toRetrievedHeaderMetadata(headers), header(headers, "ETag"), content);
         }
     }
 
+    @Override
+    public StorageObject getWithMetadata(String tenantId, @Nullable String namespace, URI uri) throws IOException {
+        // the user metadata is part of the GET response headers, no need for a preliminary stat
+        Download download = getFromMinio(uri, getPath(tenantId, uri));
+
+        return new StorageObject(download.metadata().get(), download.content());
+    }
+
     @Override
     public List<URI> allByPrefix(String tenantId, @Nullable String namespace, URI prefix, boolean includeDirectories) throws IOException {
+        return metrics.record("allByPrefix", () -> streamByPrefix(tenantId, namespace, prefix, includeDirectories).toList());
+    }
+
+    /**
+     * Lazy variant of {@link #allByPrefix(String, String, URI, boolean)}: listing pages are only fetched as the
+     * stream is consumed, so the first URIs are available after one request and memory doesn't grow with the
+     * number of objects under the prefix.
+     */
+    public Stream<URI> streamByPrefix(String tenantId, @Nullable String namespace, URI prefix, boolean includeDirectories) throws IOException {
         String internalStoragePrefix = getPath(tenantId, prefix);
         String prefixForMinio = toPrefix(internalStoragePrefix, false);
         return keysForPrefix(prefixForMinio, true, includeDirectories)
-            .map(name -> URI.create("kestra://" + prefix.getPath() + name.substring(internalStoragePrefix.length())))
-            .toList();
+            .map(name -> toListedUri(prefix, internalStoragePrefix, name));
     }
 
     @Override
     public List<FileAttributes> list(String tenantId, @Nullable String namespace, URI uri) throws IOException {
+        return metrics.record("list", () ->
+        {
+            try {
+                String prefix = toPrefix(getPath(tenantId, uri), true);
+                List<FileAttributes> list = toFileAttributes(itemsForPrefix(prefix).toList());
+                if (list.isEmpty()) {
+                    // this will throw FileNotFound if there is no directory
+                    this.getAttributes(tenantId, namespace, uri);
+                }
+                return list;
+            } catch (FileNotFoundException | IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        });
+    }
+
+    /**
+     * Paginated variant of {@link #list(String, String, URI)} fetching a single listing page per call.
+     *
+     * @param pageSize the maximum number of entries to return.
+     * @param continuationToken the token of the previous page, {@code null} for the first page.
+     * @return the entries with the token of the next page, {@code null} once the directory is fully listed.
+     */
+    public ListPage<FileAttributes> list(
+        String tenantId,
+        @Nullable String namespace,
+        URI uri,
+        int pageSize,
+        @Nullable String continuationToken
+    ) throws IOException {
+        return metrics.record("listPage", () ->
+        {
+            if (pageSize <= 0) {
+                throw new IllegalArgumentException("Page size must be positive, got " + pageSize);
+            }
+            try {
+                String prefix = toPrefix(getPath(tenantId, uri), true);
+                String startAfter = continuationToken == null ? null : fromContinuationToken(prefix, continuationToken);
+                // one more entry than the page tells whether another page follows, the SDK iterator hiding the
+                // truncation flag of the listing responses
+                int lookahead = pageSize == Integer.MAX_VALUE ? pageSize : pageSize + 1;
+                ListObjectsArgs.Builder args = listArgs(prefix, false, true).maxKeys(Math.min(lookahead, 1000));
+                if (startAfter != null) {
+                    args.startAfter(startAfter);
+                }
+                List<Item> items = listItems(args)
+                    // a common prefix used as token is returned again when resuming after it
+                    .filter(item -> !item.objectName().equals(startAfter))
+                    .filter(item -> isListed(item.objectName(), prefix, false, true))
+                    .limit(lookahead)
+                    .toList();
+                if (items.isEmpty() && continuationToken == null) {
+                    // this will throw FileNotFound if there is no directory
+                    this.getAttributes(tenantId, namespace, uri);
+                }
+                boolean truncated = items.size() > pageSize;
+                List<Item> page = truncated ? items.subList(0, pageSize) : items;
+                return new ListPage<>(
+                    toFileAttributes(page),
+                    truncated ? toContinuationToken(prefix, page.getLast().objectName()) : null
+                );
+            } catch (FileNotFoundException | IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        });
+    }
+
+    /**
+     * The token of the page following the given key: the key relative to the listed prefix, encoded so that callers
+     * neither see nor build internal keys.
+     */
+    @VisibleForTesting
+    static String toContinuationToken(String prefix, String lastKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastKey.substring(prefix.length()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @VisibleForTesting
+    static String fromContinuationToken(String prefix, String continuationToken) {
+        String suffix;
         try {
-            String prefix = toPrefix(getPath(tenantId, uri), true);
-            List<FileAttributes> list = keysForPrefix(prefix, false, true)
-                .map(throwFunction(this::getFileAttributes))
-                .toList();
-            if (list.isEmpty()) {
-                // this will throw FileNotFound if there is no directory
-                this.getAttributes(tenantId, namespace, uri);
-            }
-            return list;
-        } catch (FileNotFoundException | IllegalArgumentException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new IOException(e);
+            suffix = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token '" + continuationToken + "'", e);
+        }
+        // a page only ends with a direct child of the listed directory, a file or a sub-directory
+        int slash = suffix.indexOf('/');
+        if (suffix.isEmpty() || slash == 0 || (slash > 0 && slash != suffix.length() - 1)) {
+            throw new IllegalArgumentException("Invalid continuation token '" + continuationToken + "'");
         }
+        return prefix + suffix;
     }
 
     @Override
     public List<FileAttributes> listInstanceResource(String namespace, URI uri) throws IOException {
-        try {
-            String prefix = toPrefix(getPath(uri), true);
-            List<FileAttributes> list = keysForPrefix(prefix, false, true)
-                .map(throwFunction(this::getFileAttributes))
-                .toList();
-            if (list.isEmpty()) {
-                // this will throw FileNotFound if there is no directory
-                this.getInstanceAttributes(namespace, uri);
-            }
-            return list;
-        } catch (FileNotFoundException | IllegalArgumentException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new IOException(e);
-        }
+        return metrics.record("list", () ->
+        {
+            try {
+                String prefix = toPrefix(getPath(uri), true);
+                List<FileAttributes> list = toFileAttributes(itemsForPrefix(prefix).toList());
+                if (list.isEmpty()) {
+                    // this will throw FileNotFound if there is no directory
+                    this.getInstanceAttributes(namespace, uri);
+                }
+                return list;
+            } catch (FileNotFoundException | IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        });
     }
 
     private Stream<String> keysForPrefix(String prefix, boolean recursive, boolean includeDirectories) throws IOException {
+        Stream<String> names = listItems(prefix, recursive, false).map(Item::objectName);
+        if (implicitDirectories && recursive && includeDirectories) {
+            // without markers, directories are only visible as the parents of the listed objects
+            names = names
+                .flatMap(name -> Stream.concat(parentDirectories(name, prefix.length()), Stream.of(name)))
+                .distinct();
+        }
+        return names
+            .filter(name -> isListed(name, prefix, recursive, includeDirectories))
+            .peek(name ->
+            {
+                metrics.listedKey();
+                // recursive listings only return real directory markers (no common prefixes),
+                // later puts below them can skip mkdirs
+                if (recursive && name.endsWith("/")) {
+                    directoryCache.add(name);
+                }
+            });
+    }
+
+    /**
+     * Direct children of a directory prefix, with the user metadata when the server supports the listing extension.
+     */
+    private Stream<Item> itemsForPrefix(String prefix) throws IOException {
+        return listItems(prefix, false, true)
+            .filter(item -> isListed(item.objectName(), prefix, false, true));
+    }
+
+    private Stream<Item> listItems(String prefix, boolean recursive, boolean includeUserMetadata) throws IOException {
+        return listItems(listArgs(prefix, recursive, includeUserMetadata));
+    }
+
+    private ListObjectsArgs.Builder listArgs(String prefix, boolean recursive, boolean includeUserMetadata) {
+        return ListObjectsArgs.builder()
+            .bucket(bucket)
+            .prefix(prefix)
+            .delimiter("/")
+            .recursive(recursive)
+            .includeUserMetadata(includeUserMetadata);
+    }
+
+    /**
+     * Items are lazily fetched page by page while the returned stream is consumed.
+     */
+    private Stream<Item> listItems(ListObjectsArgs.Builder args) throws IOException {
+        ListObjectsArgs listObjectsArgs = args.build();
         try {
-            Iterable<Result<Item>> results = this.minioClient.listObjects(
-                ListObjectsArgs.builder()
-                    .bucket(bucket)
-                    .prefix(prefix)
-                    .delimiter("/")
-                    .recursive(recursive)
-                    .build()
-            );
+            Iterable<Result<Item>> results = this.minioClient.listObjects(listObjectsArgs);
             return StreamSupport.stream(results.spliterator(), false)
-                .map(throwFunction(o -> o.get().objectName()))
-                .filter(name ->
-                {
-                    if (!name.startsWith(prefix)) {
-                        return false;
-                    }
-                    name = name.substring(prefix.length());
-                    // Remove recursive result and requested dir
-                    return !name.isEmpty()
-                        && !Objects.equals(name, prefix)
-                        && !name.equals("/")
-                        && (recursive || Path.of(name).getParent() == null)
-                        && (includeDirectories || !name.endsWith("/"));
-                });
+                .map(throwFunction(Result::get));
         } catch (MinioException e) {
-            throw reThrowMinioStorageException(prefix, e);
+            throw reThrowMinioStorageException(listObjectsArgs.prefix(), e);
         } catch (IllegalArgumentException e) {
             throw e;
         } catch (Exception e) {
@@ -219,6 +632,89 @@ public class MinioStorage implements StorageInterface, MinioConfig {
         }
     }
 
+    @VisibleForTesting
+    static URI toListedUri(URI prefix, String internalStoragePrefix, String name) {
+        return URI.create("kestra://" + prefix.getPath() + name.substring(internalStoragePrefix.length()));
+    }
+
+    @VisibleForTesting
+    static boolean isListed(String name, String prefix, boolean recursive, boolean includeDirectories) {
+        if (!name.startsWith(prefix)) {
+            return false;
+        }
+        name = name.substring(prefix.length());
+        // Remove recursive result and requested dir
+        return !name.isEmpty()
+            && !Objects.equals(name, prefix)
+            && !name.equals("/")
+            && (recursive || Path.of(name).getParent() == null)
+            && (includeDirectories || !name.endsWith("/"));
+    }
+
+    private List<FileAttributes> toFileAttributes(List<Item> items) throws IOException {
+        FileAttributes[] attributes = new FileAttributes[items.size()];
+        List<Integer> toStat = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            String name = item.objectName();
+            boolean isDirectory = item.isDir() || name.endsWith("/");
+            if (isDirectory && implicitDirectories) {
+                attributes[i] = MinioFileAttributes.implicitDirectory(new File(name).getName());
+            } else if (!isDirectory && item.userMetadata() != null) {
+                attributes[i] = MinioFileAttributes.of(new File(name).getName(), item);
+            } else {
+                toStat.add(i);
+            }
+        }
+
+        // directory markers, and every file when the server ignores the metadata listing extension
+        if (toStat.size() == 1) {
+            int index = toStat.getFirst();
+            attributes[index] = getFileAttributes(items.get(index).objectName());
+        } else if (!toStat.isEmpty()) {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Semaphore permits = new Semaphore(LIST_STAT_CONCURRENCY);
+                List<Future<?>> futures = new ArrayList<>(toStat.size());
+                MinioMetrics.OperationScope scope = MinioMetrics.currentScope();
+                for (int index : toStat) {
+                    futures.add(executor.submit(scope.callable(() ->
+                    {
+                        permits.acquire();
+                        try {
+                            attributes[index] = getFileAttributes(items.get(index).objectName());
+                        } finally {
+                            permits.release();
+                        }
+                        return null;
+                    })));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+
+        return Arrays.asList(attributes);
+    }
+
+    private static Stream<String> parentDirectories(String name, int fromIndex) {
+        Stream.Builder<String> parents = Stream.builder();
+        int index = name.indexOf('/', fromIndex);
+        while (index >= 0 && index < name.length() - 1) {
+            parents.add(name.substring(0, index + 1));
+            index = name.indexOf('/', index + 1);
+        }
+        return parents.build();
+    }
+
     @Override
     public boolean exists(String tenantId, @Nullable String namespace, URI uri) {
         return exists(getPath(tenantId, uri));
@@ -233,13 +729,18 @@ public class MinioStorage implements StorageInterface, MinioConfig {
         // There is no way to check if an object exist so we gather the stat of the object which will throw an exception
         // if the object didn't exist.
         try {
-            this.minioClient.statObject(
-                StatObjectArgs.builder()
-                    .bucket(bucket)
-                    .object(path)
-                    .build()
-            );
-            return true;
+            boolean found = metrics.record("exists", () ->
+            {
+                try {
+                    statAttributes(path);
+                    return true;
+                } catch (FileNotFoundException e) {
+                    // without markers, a directory exists as the common prefix of its objects
+                    return implicitDirectories && path.endsWith("/") && directoryExists(path);
+                }
+            });
+            metrics.exists(found);
+            return found;
         } catch (Exception e) {
             return false;
         }
@@ -247,25 +748,53 @@ public class MinioStorage implements StorageInterface, MinioConfig {
 
     @Override
     public FileAttributes getAttributes(String tenantId, @Nullable String namespace, URI uri) throws IOException {
-        String path = getPath(tenantId, uri);
-        if (!path.endsWith("/") && !exists(tenantId, namespace, uri)) {
-            // if key does not exist we try to get the "directory" (directory are just object ending with /)
-            path = path + "/";
-        }
-        return getFileAttributes(path);
+        return getAttributes(getPath(tenantId, uri));
     }
 
     @Override
     public FileAttributes getInstanceAttributes(String namespace, URI uri) throws IOException {
-        String path = getPath(uri);
-        if (!path.endsWith("/") && !existsInstanceResource(namespace, uri)) {
-            // if key does not exist we try to get the "directory" (directory are just object ending with /)
-            path = path + "/";
-        }
-        return getFileAttributes(path);
+        return getAttributes(getPath(uri));
+    }
+
+    private FileAttributes getAttributes(String path) throws IOException {
+        return metrics.record("getAttributes", () ->
+        {
+            if (path.endsWith("/")) {
+                return getFileAttributes(path);
+            }
+            try {
+                return getFileAttributes(path);
+            } catch (FileNotFoundException e) {
+                // if key does not exist we try to get the "directory" (directory are just object ending with /)
+                return getFileAttributes(path + "/");
+            }
+        });
     }
 
     private FileAttributes getFileAttributes(String path) throws IOException {
+        try {
+            return statAttributes(path);
+        } catch (FileNotFoundException e) {
+            if (implicitDirectories && path.endsWith("/") && directoryExists(path)) {
+                return MinioFileAttributes.implicitDirectory(new File(path).getName());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Attributes of the object with the given key, missing objects being cached as well.
+     */
+    private FileAttributes statAttributes(String path) throws IOException {
+        AttributesCache.Entry cached = attributesCache.lookup(path);
+        if (cached != null) {
+            if (!cached.exists()) {
+                throw new FileNotFoundException(path + " (File not found)");
+            }
+            return cached.attributes();
+        }
+
+        long generation = attributesCache.generation();
         try {
             StatObjectResponse stat = this.minioClient.statObject(
                 StatObjectArgs.builder()
@@ -273,13 +802,41 @@ public class MinioStorage implements StorageInterface, MinioConfig {
                     .object(path)
                     .build()
             );
-            return MinioFileAttributes.builder()
+            FileAttributes attributes = MinioFileAttributes.builder()
                 .fileName(new File(path).getName())
                 .isDirectory(path.endsWith("/"))
                 .stat(stat)
                 .build();
+            attributesCache.put(path, attributes, generation);
+            return attributes;
+        } catch (MinioException e) {
+            IOException exception = reThrowMinioStorageException(path, e);
+            if (exception instanceof FileNotFoundException) {
+                attributesCache.put(path, null, generation);
+            }
+            throw exception;
+        }
+    }
+
+    private boolean directoryExists(String prefix) throws IOException {
+        try {
+            Iterator<Result<Item>> results = this.minioClient.listObjects(
+                ListObjectsArgs.builder()
+                    .bucket(bucket)
+                    .prefix(prefix)
+                    .delimiter("/")
+                    .maxKeys(1)
+                    .build()
+            ).iterator();
+            if (!results.hasNext()) {
+                return false;
+            }
+            results.next().get();
+            return true;
         } catch (MinioException e) {
-            throw reThrowMinioStorageException(path, e);
+            throw reThrowMinioStorageException(prefix, e);
+        } catch (Exception e) {
+            throw new IOException(e);
         }
     }
 
@@ -296,24 +853,48 @@ public class MinioStorage implements StorageInterface, MinioConfig {
     }
 
     private URI put(URI uri, StorageObject storageObject, String path) throws IOException {
-        mkdirs(path);
+        return metrics.record("put", () ->
+        {
+            mkdirs(path);
+            upload(uri, storageObject, path);
+            return URI.create("kestra://" + uri.getPath());
+        });
+    }
+
+    /**
+     * Upload the data of a put, with a single request for the known lengths fitting in a part. Every other upload goes
+     * through {@link MultipartUploader} so that its part buffers come from the pool and count against the upload memory
+     * budget, the SDK allocating its own part buffers.
+     */
+    private void upload(URI uri, StorageObject storageObject, String path) throws IOException {
         try (InputStream data = storageObject.inputStream()) {
-            this.minioClient.putObject(
-                PutObjectArgs.builder()
-                    .bucket(bucket)
-                    .object(path)
-                    .userMetadata(MetadataUtils.toStoredMetadata(storageObject.metadata()))
-                    .stream(data, -1L, partSize.value())
-                    .build()
-            );
+            long length = StreamLength.of(data);
+            Map<String, String> metadata = MetadataUtils.toStoredMetadata(storageObject.metadata());
+            if (length != StreamLength.UNKNOWN && length <= partSize.value()) {
+                // the SDK sends a single PUT for objects fitting in one part
+                this.minioClient.putObject(
+                    PutObjectArgs.builder()
+                        .bucket(bucket)
+                        .object(path)
+                        .userMetadata(metadata)
+                        .stream(data, length, partSize.value())
+                        .build()
+                );
+            } else {
+                new MultipartUploader(this.minioAsyncClient, bucket, partSize.value(), uploadParallelism, partBufferPool)
+                    .upload(path, data, length, metadata);
+            }
         } catch (MinioException e) {
             throw reThrowMinioStorageException(uri.toString(), e);
+        } finally {
+            // after the write, so that a download or stat started before it is not cached
+            attributesCache.invalidate(path);
+            invalidateLocalCache(path);
         }
-
-        return URI.create("kestra://" + uri.getPath());
     }
 
-    private URI limit(URI uri) throws IOException {
+    @VisibleForTesting
+    URI limit(URI uri) throws IOException {
         if (uri == null) {
             return null;
         }
@@ -335,95 +916,107 @@ public class MinioStorage implements StorageInterface, MinioConfig {
     }
 
     private void mkdirs(String path) throws IOException {
-        if (!path.endsWith("/")) {
-            path = path.substring(0, path.lastIndexOf("/") + 1);
+        if (implicitDirectories) {
+            // directories are derived from the object keys, no marker is needed
+            return;
         }
 
-        // check if it exists before creating it
-        if (exists(path)) {
+        String directory = path.endsWith("/") ? path : path.substring(0, path.lastIndexOf("/") + 1);
+
+        // a directory already created or listed by this instance doesn't need any request
+        if (directoryCache.contains(directory)) {
             return;
         }
 
-        String[] directories = path.split("/");
-        StringBuilder aggregatedPath = new StringBuilder();
-        // perform 1 put request per parent directory in the path
-        for (int i = 0; i < directories.length; i++) {
-            aggregatedPath.append(directories[i]).append("/");
-            try {
-                this.minioClient.putObject(
-                    PutObjectArgs.builder()
-                        .bucket(bucket)
-                        .object(aggregatedPath.toString())
-                        .data(new byte[0], 0)
-                        .contentType("application/x-directory")
-                        .build()
-                );
-            } catch (Exception e) {
-                throw new IOException(e);
+        metrics.run("mkdirs", () ->
+        {
+            // check if it exists before creating it
+            if (exists(directory)) {
+                directoryCache.add(directory);
+                return;
             }
-        }
+
+            String[] directories = directory.split("/");
+            StringBuilder aggregatedPath = new StringBuilder();
+            // perform 1 put request per parent directory in the path that is not already known
+            for (int i = 0; i < directories.length; i++) {
+                aggregatedPath.append(directories[i]).append("/");
+                if (directoryCache.contains(aggregatedPath.toString())) {
+                    continue;
+                }
+                try {
+                    this.minioClient.putObject(
+                        PutObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(aggregatedPath.toString())
+                            .data(new byte[0], 0)
+                            .contentType("application/x-directory")
+                            .build()
+                    );
+                } catch (Exception e) {
+                    throw new IOException(e);
+                } finally {
+                    attributesCache.invalidate(aggregatedPath.toString());
+                }
+                directoryCache.add(aggregatedPath.toString());
+            }
+        });
     }
 
     @Override
     public boolean delete(String tenantId, @Nullable String namespace, URI uri) throws IOException {
-        FileAttributes fileAttributes;
-        try {
-            fileAttributes = getAttributes(tenantId, namespace, uri);
-        } catch (FileNotFoundException e) {
-            return false;
-        }
-        if (fileAttributes.getType() == FileAttributes.FileType.Directory) {
-            return !deleteByPrefix(tenantId, namespace, uri.getPath().endsWith("/") ? uri : URI.create(uri + "/")).isEmpty();
-        }
-
-        try {
-            this.minioClient.removeObject(
-                RemoveObjectArgs.builder()
-                    .bucket(bucket)
-                    .object(getPath(tenantId, uri))
-                    .build()
-            );
-
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return delete(tenantId, namespace, uri, getPath(tenantId, uri));
     }
 
     @Override
     public boolean deleteInstanceResource(String namespace, URI uri) throws IOException {
-        FileAttributes fileAttributes;
-        try {
-            fileAttributes = getInstanceAttributes(namespace, uri);
-        } catch (FileNotFoundException e) {
-            return false;
-        }
-        if (fileAttributes.getType() == FileAttributes.FileType.Directory) {
-            return !deleteByPrefix(null, namespace, uri.getPath().endsWith("/") ? uri : URI.create(uri + "/")).isEmpty();
-        }
+        return delete(null, namespace, uri, getPath(uri));
+    }
 
-        try {
-            this.minioClient.removeObject(
-                RemoveObjectArgs.builder()
-                    .bucket(bucket)
-                    .object(getPath(uri))
-                    .build()
-            );
+    private boolean delete(@Nullable String tenantId, @Nullable String namespace, URI uri, String path) throws IOException {
+        return metrics.record("delete", () ->
+        {
+            boolean isDirectory;
+            if (fastDelete) {
+                // trust the key type, only keys ending with a / are directories
+                isDirectory = path.endsWith("/");
+            } else {
+                try {
+                    isDirectory = getAttributes(path).getType() == FileAttributes.FileType.Directory;
+                } catch (FileNotFoundException e) {
+                    return false;
+                }
+            }
+            if (isDirectory) {
+                return !deleteByPrefix(tenantId, namespace, uri.getPath().endsWith("/") ? uri : URI.create(uri + "/")).isEmpty();
+            }
 
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+            try {
+                this.minioClient.removeObject(
+                    RemoveObjectArgs.builder()
+                        .bucket(bucket)
+                        .object(path)
+                        .build()
+                );
+
+                return true;
+            } catch (Exception e) {
+                return false;
+            } finally {
+                attributesCache.invalidate(path);
+                invalidateLocalCache(path);
+            }
+        });
     }
 
     @Override
     public URI createDirectory(String tenantId, @Nullable String namespace, URI uri) throws IOException {
-        return createDirectory(uri, getPath(tenantId, uri));
+        return metrics.record("createDirectory", () -> createDirectory(uri, getPath(tenantId, uri)));
     }
 
     @Override
     public URI createInstanceDirectory(String namespace, URI uri) throws IOException {
-        return createDirectory(uri, getPath(uri));
+        return metrics.record("createDirectory", () -> createDirectory(uri, getPath(uri)));
     }
 
     @NotNull
@@ -444,67 +1037,112 @@ public class MinioStorage implements StorageInterface, MinioConfig {
             );
         } catch (MinioException e) {
             throw reThrowMinioStorageException(uri.toString(), e);
+        } finally {
+            attributesCache.invalidate(path);
         }
+        directoryCache.add(path);
 
         return URI.create(getPath("kestra://", uri));
     }
 
     @Override
     public URI move(String tenantId, @Nullable String namespace, URI from, URI to) throws IOException {
-        String source = getPath(tenantId, from);
-        String dest = getPath(tenantId, to);
-        List<DeleteRequest.Object> toDelete = new ArrayList<>();
+        return metrics.record("move", () ->
+        {
+            String source = getPath(tenantId, from);
+            String dest = getPath(tenantId, to);
+            Map<String, String> failures = new ConcurrentHashMap<>();
+
+            ObjectRemover remover = new ObjectRemover(this.minioClient, bucket, MOVE_CONCURRENT_DELETE_BATCHES);
+            boolean directory = false;
+            try (remover) {
+                FileAttributes attributes = getAttributes(tenantId, namespace, from);
+                directory = attributes.getType() == FileAttributes.FileType.Directory;
+                if (directory) {
+                    moveDirectory(toPrefix(source, true), dest, remover, failures);
+                } else {
+                    mkdirs(dest);
+                    copy(source, dest);
+                    remover.remove(source);
+                }
+            } catch (MinioException e) {
+                throw reThrowMinioStorageException(from.toString(), e);
+            } catch (FileNotFoundException | IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            } finally {
+                directoryCache.invalidatePrefix(source);
+                attributesCache.invalidatePrefix(source);
+                attributesCache.invalidatePrefix(dest);
+                if (directory) {
+                    invalidateLocalCachePrefix(toPrefix(source, true));
+                    invalidateLocalCachePrefix(toPrefix(dest, true));
+                } else {
+                    invalidateLocalCache(source);
+                    invalidateLocalCache(dest);
+                }
+            }
 
-        try {
-            FileAttributes attributes = getAttributes(tenantId, namespace, from);
-            if (attributes.getType() == FileAttributes.FileType.Directory) {
-                String sourcePrefix = toPrefix(source, true);
-                Iterable<Result<Item>> results = this.minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                        .bucket(bucket)
-                        .prefix(sourcePrefix)
-                        .delimiter("/")
-                        .recursive(true)
-                        .build()
+            failures.putAll(remover.failures());
+            if (!failures.isEmpty()) {
+                throw new IOException(
+                    "Unable to move all files, failed on [" +
+                        failures.entrySet().stream()
+                            .map(failure -> failure.getKey() + ": " + failure.getValue())
+                            .collect(Collectors.joining(", "))
+                        +
+                        "]"
                 );
-                for (Result<Item> result : results) {
-                    Item item = result.get();
-                    String objectName = item.objectName();
-                    String newKey = dest + "/" + objectName.substring(sourcePrefix.length());
-                    if (objectName.endsWith("/")) {
+            }
+            return URI.create(getPath("kestra://", to));
+        });
+    }
+
+    /**
+     * Copy every object of the source prefix with up to {@code moveConcurrency} server-side copies in flight,
+     * the sources being removed by batches as soon as their copy completes.
+     */
+    private void moveDirectory(String sourcePrefix, String dest, ObjectRemover remover, Map<String, String> failures) throws Exception {
+        Set<String> destDirectories = new HashSet<>();
+        Semaphore permits = new Semaphore(Math.max(1, moveConcurrency));
+        MinioMetrics.OperationScope scope = MinioMetrics.currentScope();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Iterator<Item> items = listItems(sourcePrefix, true, false).iterator();
+            while (items.hasNext()) {
+                String objectName = items.next().objectName();
+                String newKey = dest + "/" + objectName.substring(sourcePrefix.length());
+                if (objectName.endsWith("/") && !implicitDirectories) {
+                    if (destDirectories.add(newKey)) {
                         mkdirs(newKey);
-                        toDelete.add(new DeleteRequest.Object(objectName));
-                        continue;
                     }
-                    move(objectName, newKey, toDelete);
+                    remover.remove(objectName);
+                    continue;
                 }
-            } else {
-                move(source, dest, toDelete);
-            }
-            Iterable<Result<DeleteResult.Error>> results = this.minioClient.removeObjects(
-                RemoveObjectsArgs.builder()
-                    .bucket(bucket)
-                    .objects(toDelete)
-                    .build()
-            );
-            for (Result<DeleteResult.Error> result : results) {
-                DeleteResult.Error deleteError = result.get();
-                if (deleteError != null) {
-                    throw new IOException(deleteError.message());
+
+                // parents are created once, from the listing thread, so that copies only issue the copy request
+                String newParent = newKey.substring(0, newKey.lastIndexOf("/") + 1);
+                if (destDirectories.add(newParent)) {
+                    mkdirs(newParent);
                 }
+
+                permits.acquire();
+                executor.submit(scope.runnable(() ->
+                {
+                    try {
+                        copy(objectName, newKey);
+                        remover.remove(objectName);
+                    } catch (Exception e) {
+                        failures.put(objectName, String.valueOf(e.getMessage()));
+                    } finally {
+                        permits.release();
+                    }
+                }));
             }
-        } catch (MinioException e) {
-            throw reThrowMinioStorageException(from.toString(), e);
-        } catch (FileNotFoundException | IllegalArgumentException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new IOException(e);
         }
-        return URI.create(getPath("kestra://", to));
     }
 
-    private void move(String source, String dest, List<DeleteRequest.Object> toDelete) throws Exception {
-        mkdirs(dest);
+    private void copy(String source, String dest) throws Exception {
         this.minioClient.copyObject(
             CopyObjectArgs.builder()
                 .bucket(bucket)
@@ -517,66 +1155,384 @@ public class MinioStorage implements StorageInterface, MinioConfig {
                 )
                 .build()
         );
-        toDelete.add(new DeleteRequest.Object(source));
     }
 
     @Override
     public List<URI> deleteByPrefix(String tenantId, @Nullable String namespace, URI storagePrefix) throws IOException {
-        String path = tenantId == null ? getPath(storagePrefix) : getPath(tenantId, storagePrefix);
-        List<Pair<String, DeleteRequest.Object>> deleted = Streams
-            .stream(
-                this.minioClient
-                    .listObjects(
-                        ListObjectsArgs.builder()
+        return metrics.record("deleteByPrefix", () ->
+        {
+            String path = tenantId == null ? getPath(storagePrefix) : getPath(tenantId, storagePrefix);
+            String prefix = toPrefix(path, false);
+
+            // listing pages are fed to the remover as they come, deletions start before the listing is over
+            List<URI> deleted = new ArrayList<>();
+            ObjectRemover remover = new ObjectRemover(this.minioClient, bucket, DELETE_CONCURRENT_BATCHES);
+            try (remover) {
+                Iterator<Item> items = listItems(prefix, true, false).iterator();
+                while (items.hasNext()) {
+                    String name = items.next().objectName();
+                    remover.remove(name);
+                    deleted.add(toDeletedUri(tenantId, name));
+                }
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            } finally {
+                // after the removals, so that directories added back by a concurrent put are forgotten as well
+                directoryCache.invalidatePrefix(prefix);
+                attributesCache.invalidatePrefix(prefix);
+                invalidateLocalCachePrefix(prefix);
+            }
+
+            if (!remover.failures().isEmpty()) {
+                throw new IOException(
+                    "Unable to delete all files, failed on [" +
+                        String.join(", ", remover.failures().keySet())
+                        +
+                        "]"
+                );
+            }
+
+            return deleted;
+        });
+    }
+
+    @VisibleForTesting
+    static URI toDeletedUri(String tenantId, String name) {
+        name = name.replaceFirst(tenantId + "/", "");
+        name = name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+        return URI.create("kestra:///" + name);
+    }
+
+    /**
+     * Asynchronous variant of {@link #get(String, String, URI)}, completing once the response headers are received.
+     * Reading the returned stream still waits for the network.
+     */
+    public CompletableFuture<InputStream> getAsync(String tenantId, @Nullable String namespace, URI uri) {
+        return metrics.recordAsync("getAsync", () ->
+        {
+            String path = getPath(tenantId, uri);
+            DiskCache.Entry entry = localCache == null ? null : localCache.lookup(path);
+            CompletableFuture<Boolean> cached = entry == null ? CompletableFuture.completedFuture(false) : isUpToDateAsync(entry);
+            // continued by the HTTP dispatcher thread which completed the revalidation
+            MinioMetrics.OperationScope scope = MinioMetrics.currentScope();
+            return cached.<InputStream>thenCompose(scope.function(upToDate ->
+            {
+                if (upToDate) {
+                    try {
+                        InputStream cachedContent = localCache.open(entry);
+                        if (cachedContent != null) {
+                            return CompletableFuture.completedFuture(cachedContent);
+                        }
+                    } catch (IOException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                }
+                return translated(
+                    uri.toString(),
+                    async(() -> this.minioAsyncClient.getObject(
+                        GetObjectArgs.builder()
+                            .bucket(this.bucket)
+                            .object(path)
+                            .build()
+                    ))
+                ).<InputStream>thenApply(response ->
+                {
+                    if (localCache == null) {
+                        return response;
+                    }
+                    Download download = Download.of(response.headers(), response);
+                    return localCache.caching(path, unquote(download.etag()), download.metadata().get(), response);
+                });
+            }));
+        });
+    }
+
+    private CompletableFuture<Boolean> isUpToDateAsync(DiskCache.Entry entry) {
+        if (localCache.isFresh(entry)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return async(() -> this.minioAsyncClient.statObject(
+            StatObjectArgs.builder()
+                .bucket(bucket)
+                .object(entry.key())
+                .build()
+        )).handle((stat, throwable) ->
+        {
+            if (throwable == null && entry.etag().equals(unquote(stat.etag()))) {
+                localCache.revalidated(entry);
+                return true;
+            }
+            localCache.invalidate(entry.key());
+            return false;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #put(String, String, URI, StorageObject)}, the missing parent directory markers
+     * being created beforehand. The data is uploaded like a put, on a virtual thread rather than an HTTP dispatcher
+     * thread since reading it may block, so that data of unknown length is uploaded in concurrent parts within the
+     * upload memory budget.
+     */
+    public CompletableFuture<URI> putAsync(String tenantId, @Nullable String namespace, URI uri, StorageObject storageObject) {
+        return metrics.recordAsync("putAsync", () ->
+        {
+            URI limited;
+            try {
+                limited = limit(uri);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            String path = getPath(tenantId, limited);
+            CompletableFuture<Void> upload = mkdirsAsync(path).thenRunAsync(MinioMetrics.currentScope().runnable(() ->
+            {
+                try {
+                    upload(limited, storageObject, path);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }), asyncExecutor);
+            return translated(limited.toString(), upload)
+                .thenApply(ignored -> URI.create("kestra://" + limited.getPath()));
+        });
+    }
+
+    private CompletableFuture<Void> mkdirsAsync(String path) {
+        if (implicitDirectories) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String directory = path.endsWith("/") ? path : path.substring(0, path.lastIndexOf("/") + 1);
+        if (directoryCache.contains(directory)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        MinioMetrics.OperationScope scope = MinioMetrics.currentScope();
+        return statAsync(directory).handle((attributes, throwable) -> throwable == null).thenCompose(scope.function(exists ->
+        {
+            if (exists) {
+                directoryCache.add(directory);
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> markers = CompletableFuture.completedFuture(null);
+            StringBuilder aggregatedPath = new StringBuilder();
+            for (String segment : directory.split("/")) {
+                String marker = aggregatedPath.append(segment).append("/").toString();
+                if (directoryCache.contains(marker)) {
+                    continue;
+                }
+                markers = markers
+                    .thenCompose(scope.function(ignored -> async(() -> this.minioAsyncClient.putObject(
+                        PutObjectArgs.builder()
                             .bucket(bucket)
-                            .prefix(toPrefix(path, false))
-                            .recursive(true)
+                            .object(marker)
+                            .data(new byte[0], 0)
+                            .contentType("application/x-directory")
                             .build()
-                    )
-            )
-            .map(throwFunction(itemResult ->
+                    ))))
+                    .thenRun(() ->
+                    {
+                        attributesCache.invalidate(marker);
+                        directoryCache.add(marker);
+                    });
+            }
+            return markers;
+        }));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAttributes(String, String, URI)}.
+     */
+    public CompletableFuture<FileAttributes> getAttributesAsync(String tenantId, @Nullable String namespace, URI uri) {
+        return metrics.recordAsync("getAttributesAsync", () ->
+        {
+            return attributesAsync(getPath(tenantId, uri));
+        });
+    }
+
+    private CompletableFuture<FileAttributes> attributesAsync(String path) {
+        CompletableFuture<FileAttributes> attributes = statAsync(path);
+        if (path.endsWith("/")) {
+            return directoryAttributesAsync(path, attributes);
+        }
+        return attributes.exceptionallyCompose(MinioMetrics.currentScope().function(throwable ->
+        {
+            if (unwrap(throwable) instanceof FileNotFoundException) {
+                // if key does not exist we try to get the "directory" (directory are just object ending with /)
+                return directoryAttributesAsync(path + "/", statAsync(path + "/"));
+            }
+            return CompletableFuture.failedFuture(throwable);
+        }));
+    }
+
+    private CompletableFuture<FileAttributes> directoryAttributesAsync(String path, CompletableFuture<FileAttributes> attributes) {
+        if (!implicitDirectories) {
+            return attributes;
+        }
+        MinioMetrics.OperationScope scope = MinioMetrics.currentScope();
+        return attributes.exceptionallyCompose(scope.function(throwable ->
+        {
+            if (!(unwrap(throwable) instanceof FileNotFoundException)) {
+                return CompletableFuture.failedFuture(throwable);
+            }
+            // the listing of the SDK is a blocking iterator
+            return CompletableFuture.supplyAsync(scope.supplier(() ->
             {
                 try {
-                    return Pair.of(itemResult.get().objectName(), new DeleteRequest.Object(itemResult.get().objectName()));
-                } catch (Exception e) {
-                    throw new IOException(e);
+                    if (directoryExists(path)) {
+                        return MinioFileAttributes.implicitDirectory(new File(path).getName());
+                    }
+                } catch (IOException e) {
+                    throw new CompletionException(e);
                 }
-            }))
-            .toList();
+                throw new CompletionException(unwrap(throwable));
+            }), asyncExecutor);
+        }));
+    }
 
-        Iterable<Result<DeleteResult.Error>> results = this.minioClient.removeObjects(
-            RemoveObjectsArgs.builder()
-                .bucket(bucket)
-                .objects(deleted.stream().map(Pair::getRight).toList())
-                .build()
-        );
+    /**
+     * Asynchronous variant of {@link #statAttributes(String)}, sharing its cache.
+     */
+    private CompletableFuture<FileAttributes> statAsync(String path) {
+        AttributesCache.Entry cached = attributesCache.lookup(path);
+        if (cached != null) {
+            return cached.exists()
+                ? CompletableFuture.completedFuture(cached.attributes())
+                : CompletableFuture.failedFuture(new FileNotFoundException(path + " (File not found)"));
+        }
 
-        if (results.iterator().hasNext()) {
-            throw new IOException(
-                "Unable to delete all files, failed on [" +
-                    Streams
-                        .stream(results)
-                        .map(throwFunction(r ->
-                        {
-                            try {
-                                return r.get().objectName();
-                            } catch (Exception e) {
-                                throw new IOException(e);
-                            }
-                        }))
-                        .collect(Collectors.joining(", "))
-                    +
-                    "]"
-            );
+        long generation = attributesCache.generation();
+        return translated(
+            path,
+            async(() -> this.minioAsyncClient.statObject(
+                StatObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(path)
+                    .build()
+            ))
+        ).handle((stat, throwable) ->
+        {
+            if (throwable != null) {
+                Throwable cause = unwrap(throwable);
+                if (cause instanceof FileNotFoundException) {
+                    attributesCache.put(path, null, generation);
+                }
+                throw new CompletionException(cause);
+            }
+            FileAttributes attributes = MinioFileAttributes.builder()
+                .fileName(new File(path).getName())
+                .isDirectory(path.endsWith("/"))
+                .stat(stat)
+                .build();
+            attributesCache.put(path, attributes, generation);
+            return attributes;
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #delete(String, String, URI)}. Directories are removed with
+     * {@link #deleteByPrefix(String, String, URI)} on a virtual thread, as their listing is blocking.
+     */
+    public CompletableFuture<Boolean> deleteAsync(String tenantId, @Nullable String namespace, URI uri) {
+        return metrics.recordAsync("deleteAsync", () ->
+        {
+            String path = getPath(tenantId, uri);
+            MinioMetrics.OperationScope scope = MinioMetrics.currentScope();
+            CompletableFuture<Boolean> isDirectory = fastDelete
+                // trust the key type, only keys ending with a / are directories
+                ? CompletableFuture.completedFuture(path.endsWith("/"))
+                : attributesAsync(path).thenApply(attributes -> attributes.getType() == FileAttributes.FileType.Directory);
+
+            return isDirectory.thenCompose(scope.function(directory ->
+            {
+                if (directory) {
+                    URI prefix = uri.getPath().endsWith("/") ? uri : URI.create(uri + "/");
+                    return CompletableFuture.supplyAsync(scope.supplier(() ->
+                    {
+                        try {
+                            return !deleteByPrefix(tenantId, namespace, prefix).isEmpty();
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    }), asyncExecutor);
+                }
+                return async(() -> this.minioAsyncClient.removeObject(
+                    RemoveObjectArgs.builder()
+                        .bucket(bucket)
+                        .object(path)
+                        .build()
+                )).handle((ignored, throwable) ->
+                {
+                    attributesCache.invalidate(path);
+                    invalidateLocalCache(path);
+                    return throwable == null;
+                });
+            })).exceptionally(throwable ->
+            {
+                if (unwrap(throwable) instanceof FileNotFoundException) {
+                    return false;
+                }
+                throw new CompletionException(unwrap(throwable));
+            });
+        });
+    }
+
+    /**
+     * Asynchronous variant of {@link #list(String, String, URI, int, String)}. The page is fetched on a virtual
+     * thread, as the listing of the SDK is a blocking iterator.
+     */
+    public CompletableFuture<ListPage<FileAttributes>> listAsync(
+        String tenantId,
+        @Nullable String namespace,
+        URI uri,
+        int pageSize,
+        @Nullable String continuationToken
+    ) {
+        return metrics.recordAsync("listAsync", () ->
+        {
+            return CompletableFuture.supplyAsync(MinioMetrics.currentScope().supplier(() ->
+            {
+                try {
+                    return list(tenantId, namespace, uri, pageSize, continuationToken);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }), asyncExecutor);
+        });
+    }
+
+    /**
+     * Map the failures of an SDK call to the exceptions of the blocking methods, e.g. {@link FileNotFoundException}.
+     */
+    private <T> CompletableFuture<T> translated(String uri, CompletableFuture<T> future) {
+        return future.handle((result, throwable) ->
+        {
+            if (throwable == null) {
+                return result;
+            }
+            Throwable cause = unwrap(throwable);
+            throw new CompletionException(cause instanceof MinioException e ? reThrowMinioStorageException(uri, e) : cause);
+        });
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            throwable = throwable.getCause();
         }
+        return throwable;
+    }
+
+    private static <T> CompletableFuture<T> async(AsyncCall<T> call) {
+        try {
+            return call.call();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-        return deleted
-            .stream()
-            .map(Pair::getLeft)
-            .map(name -> name.replaceFirst(tenantId + "/", ""))
-            .map(name -> name.endsWith("/") ? name.substring(0, name.length() - 1) : name)
-            .map(name -> URI.create("kestra:///" + name))
-            .collect(Collectors.toList());
+    @FunctionalInterface
+    private interface AsyncCall<T> {
+        CompletableFuture<T> call() throws Exception;
     }
 
     private String toPrefix(String path, boolean isDirectory) {
@@ -589,6 +1545,7 @@ public class MinioStorage implements StorageInterface, MinioConfig {
     }
 
     private IOException reThrowMinioStorageException(String uri, MinioException e) {
+        metrics.s3Error(e instanceof ErrorResponseException error ? error.errorResponse().code() : e.getClass().getSimpleName());
         if (e instanceof ErrorResponseException errorResponseException) {
             if ("NoSuchKey".equals(errorResponseException.errorResponse().code())) {
                 return new FileNotFoundException(uri + " (File not found)");
@@ -616,5 +1573,21 @@ public class MinioStorage implements StorageInterface, MinioConfig {
                 LOG.warn("Failed to close MinIO client", e);
             }
         }
+        if (this.minioAsyncClient != null) {
+            try {
+                this.minioAsyncClient.close();
+            } catch (Exception e) {
+                LOG.warn("Failed to close MinIO async client", e);
+            }
+        }
+        if (this.asyncExecutor != null) {
+            this.asyncExecutor.shutdown();
+        }
+        if (this.localCache != null) {
+            this.localCache.close();
+        }
+        if (this.metrics != null) {
+            this.metrics.close();
+        }
     }
 }
@@ -0,0 +1,35 @@
+package io.kestra.storage.minio.domains;
+
+import java.time.Duration;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.storage.minio.internal.BytesSize;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Getter
+@Builder(toBuilder = true)
+@Jacksonized
+public class DiskCacheConfiguration {
+    @Schema(
+        title = "The directory in which the cached files are stored.",
+        description = "Each storage instance uses its own sub-directory, deleted when the storage is closed. Defaults to the system temporary directory."
+    )
+    @PluginProperty(group = "advanced")
+    private String path;
+
+    @Schema(title = "The maximum total size of the cached files.")
+    @PluginProperty(group = "advanced")
+    @Builder.Default
+    private BytesSize maxSize = new BytesSize(1024L * 1024 * 1024);
+
+    @Schema(
+        title = "The duration during which a cached file is served without checking that it is still up to date.",
+        description = "When not set, each read checks the ETag of the object with a HEAD request before serving the cached file."
+    )
+    @PluginProperty(group = "advanced")
+    private Duration ttl;
+}
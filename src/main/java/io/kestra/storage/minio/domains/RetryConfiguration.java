@@ -0,0 +1,59 @@
+package io.kestra.storage.minio.domains;
+
+import java.time.Duration;
+
+import io.kestra.core.models.annotations.PluginProperty;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Getter
+@Builder(toBuilder = true)
+@Jacksonized
+public class RetryConfiguration {
+    @Schema(
+        title = "The maximum number of attempts of an idempotent S3 request, the first one included.",
+        description = "Stat, get, list, copy, delete and upload part requests failing with a throttling or server error (429, 500, 502, 503, 504) or a network error are retried. Set to 1 to disable retries."
+    )
+    @PluginProperty(group = "advanced")
+    @Builder.Default
+    @Min(1)
+    private int maxAttempts = 3;
+
+    @Schema(
+        title = "The delay before the first retry, must not be negative.",
+        description = "The delay doubles with each retry, up to `maxDelay`."
+    )
+    @PluginProperty(group = "advanced")
+    @Builder.Default
+    private Duration initialDelay = Duration.ofMillis(100);
+
+    @Schema(title = "The maximum delay between two attempts, at least `initialDelay`.")
+    @PluginProperty(group = "advanced")
+    @Builder.Default
+    private Duration maxDelay = Duration.ofSeconds(5);
+
+    @Schema(
+        title = "The share of each delay which is randomized, between 0 and 1.",
+        description = "With 1, each delay is drawn between zero and its exponential value so that clients throttled together don't retry together."
+    )
+    @PluginProperty(group = "advanced")
+    @Builder.Default
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double jitter = 1.0;
+
+    @Schema(
+        title = "The number of retries the storage may send in a burst.",
+        description = "Each retry consumes one token of this budget and each request succeeding at its first attempt gives back a tenth of a token, so that retries cannot multiply the load of an overloaded server. Retries are skipped while the budget is empty."
+    )
+    @PluginProperty(group = "advanced")
+    @Builder.Default
+    @Min(0)
+    private int budget = 100;
+}
@@ -0,0 +1,119 @@
+package io.kestra.storage.minio.internal;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.kestra.core.storages.FileAttributes;
+
+/**
+ * Bounded in-memory cache of the attributes of objects, remembering missing objects as well.
+ * <p>
+ * Entries expire {@code ttl} after being stored and are evicted in least-recently-used order once {@code maxSize}
+ * is reached. A cache created without TTL or with a {@code maxSize} lower than or equal to zero never remembers
+ * anything.
+ * <p>
+ * Every invalidation starts a new generation: attributes fetched before an invalidation may be stale and are only
+ * stored when given the generation read before fetching them.
+ */
+public class AttributesCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    private long generation;
+
+    public AttributesCache(int maxSize, Duration ttl) {
+        this.maxSize = ttl == null || ttl.isZero() || ttl.isNegative() ? 0 : maxSize;
+        this.ttlMillis = ttl == null ? 0 : ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AttributesCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * @return the cached entry, or {@code null} when the path is unknown or its entry expired.
+     */
+    public Entry lookup(String path) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(path);
+            if (entry != null && entry.expiresAt() <= System.currentTimeMillis()) {
+                entries.remove(path);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    public long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * @param attributes the attributes of the object, {@code null} when it doesn't exist.
+     * @param generation the generation read before fetching the attributes.
+     */
+    public void put(String path, FileAttributes attributes, long generation) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation == this.generation) {
+                entries.put(path, new Entry(attributes, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+    }
+
+    public void invalidate(String path) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            generation++;
+            entries.remove(path);
+        }
+    }
+
+    /**
+     * Forget every entry starting with the given prefix, the prefix itself included.
+     */
+    public void invalidatePrefix(String prefix) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            generation++;
+            if (prefix == null || prefix.isEmpty()) {
+                entries.clear();
+                return;
+            }
+            entries.keySet().removeIf(path -> path.startsWith(prefix));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @param attributes the attributes of the object, {@code null} when it doesn't exist.
+     */
+    public record Entry(FileAttributes attributes, long expiresAt) {
+        public boolean exists() {
+            return attributes != null;
+        }
+    }
+}
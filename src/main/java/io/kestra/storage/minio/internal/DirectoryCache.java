@@ -0,0 +1,65 @@
+package io.kestra.storage.minio.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory set of directory prefixes (keys ending with {@code /}) known to exist in the bucket.
+ * <p>
+ * Entries are evicted in least-recently-used order once {@code maxSize} is reached. A cache created with
+ * a {@code maxSize} lower than or equal to zero never remembers anything.
+ */
+public class DirectoryCache {
+    private final int maxSize;
+    private final Map<String, Boolean> directories;
+
+    public DirectoryCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.directories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > DirectoryCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean contains(String directory) {
+        if (maxSize <= 0) {
+            return false;
+        }
+        synchronized (directories) {
+            return directories.get(directory) != null;
+        }
+    }
+
+    public void add(String directory) {
+        if (maxSize <= 0 || directory == null || !directory.endsWith("/")) {
+            return;
+        }
+        synchronized (directories) {
+            directories.put(directory, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Forget every known directory starting with the given prefix, the prefix itself included.
+     */
+    public void invalidatePrefix(String prefix) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (directories) {
+            if (prefix == null || prefix.isEmpty()) {
+                directories.clear();
+                return;
+            }
+            directories.keySet().removeIf(directory -> directory.startsWith(prefix));
+        }
+    }
+
+    public int size() {
+        synchronized (directories) {
+            return directories.size();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Read-through cache of downloaded objects on the local disk, bounded by bytes and evicted in least-recently-used order.
+ * <p>
+ * Files are written while the caller reads the download and only become entries once the whole object has been read.
+ * Each entry remembers the ETag of its object so that the caller can revalidate it, entries validated less than
+ * {@code ttl} ago being considered fresh. The cache lives in its own temporary directory, deleted on close.
+ */
+public class DiskCache implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(DiskCache.class);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration ttl;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // bumped by every invalidation, a download started before an invalidation may be stale and is not stored
+    private long generation;
+
+    /**
+     * @param ttl the duration during which an entry is served without revalidation, {@code null} to always revalidate.
+     */
+    public DiskCache(Path parent, long maxBytes, Duration ttl) throws IOException {
+        Files.createDirectories(parent);
+        this.directory = Files.createTempDirectory(parent, "kestra-minio-cache-");
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+    }
+
+    public synchronized Entry lookup(String key) {
+        return entries.get(key);
+    }
+
+    public boolean isFresh(Entry entry) {
+        return ttl != null && System.currentTimeMillis() - entry.validatedAt() < ttl.toMillis();
+    }
+
+    public synchronized void revalidated(Entry entry) {
+        if (entries.get(entry.key()) == entry) {
+            entries.put(entry.key(), entry.withValidatedAt(System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * @return the content of the entry, or {@code null} when its file was deleted since its lookup, e.g. by a concurrent
+     * eviction, so that the caller downloads the object instead.
+     */
+    @Nullable
+    public InputStream open(Entry entry) throws IOException {
+        try {
+            return Files.newInputStream(entry.file());
+        } catch (NoSuchFileException e) {
+            synchronized (this) {
+                // still there when the file was deleted behind the cache's back
+                if (entries.get(entry.key()) == entry) {
+                    entries.remove(entry.key());
+                    totalBytes -= entry.size();
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Wrap the download of an object so that it is stored in the cache once fully read.
+     */
+    public InputStream caching(String key, String etag, Map<String, String> metadata, InputStream source) {
+        if (etag == null) {
+            return source;
+        }
+        try {
+            Path file = directory.resolve(UUID.randomUUID().toString());
+            long startGeneration;
+            synchronized (this) {
+                startGeneration = generation;
+            }
+            return new CachingInputStream(source, file, new BufferedOutputStream(Files.newOutputStream(file)), key, etag, metadata, startGeneration);
+        } catch (IOException e) {
+            LOG.debug("Unable to cache '{}'", key, e);
+            return source;
+        }
+    }
+
+    public synchronized void invalidate(String key) {
+        generation++;
+        remove(entries.remove(key));
+    }
+
+    /**
+     * Invalidate every entry whose key starts with the given prefix.
+     */
+    public synchronized void invalidatePrefix(String prefix) {
+        generation++;
+        var iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (prefix == null || entry.key().startsWith(prefix)) {
+                iterator.remove();
+                remove(entry);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        entries.clear();
+        totalBytes = 0;
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            LOG.warn("Unable to delete the cache directory '{}'", directory, e);
+        }
+    }
+
+    private synchronized void store(Entry entry, long startGeneration) {
+        if (entry.size() > maxBytes || startGeneration != generation) {
+            deleteQuietly(entry.file());
+            return;
+        }
+        remove(entries.put(entry.key(), entry));
+        totalBytes += entry.size();
+
+        List<Entry> evicted = new ArrayList<>();
+        var iterator = entries.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            evicted.add(eldest);
+            totalBytes -= eldest.size();
+        }
+        evicted.forEach(evictedEntry -> deleteQuietly(evictedEntry.file()));
+    }
+
+    private void remove(Entry entry) {
+        if (entry != null) {
+            totalBytes -= entry.size();
+            deleteQuietly(entry.file());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.debug("Unable to delete the cached file '{}'", file, e);
+        }
+    }
+
+    public record Entry(String key, Path file, String etag, long size, Map<String, String> metadata, long validatedAt) {
+        Entry withValidatedAt(long validatedAt) {
+            return new Entry(key, file, etag, size, metadata, validatedAt);
+        }
+    }
+
+    private class CachingInputStream extends FilterInputStream {
+        private final Path file;
+        private final OutputStream output;
+        private final String key;
+        private final String etag;
+        private final Map<String, String> metadata;
+        private final long startGeneration;
+        private long written;
+        private boolean failed;
+        private boolean complete;
+
+        CachingInputStream(
+            InputStream source,
+            Path file,
+            OutputStream output,
+            String key,
+            String etag,
+            Map<String, String> metadata,
+            long startGeneration
+        ) {
+            super(source);
+            this.startGeneration = startGeneration;
+            this.file = file;
+            this.output = output;
+            this.key = key;
+            this.etag = etag;
+            this.metadata = metadata;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read == -1) {
+                complete = true;
+            } else if (!failed) {
+                write(new byte[] { (byte) read }, 0, 1);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1) {
+                complete = true;
+            } else if (read > 0 && !failed) {
+                write(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes would be missing from the cached file
+            failed = true;
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    failed = true;
+                }
+                if (complete && !failed) {
+                    store(new Entry(key, file, etag, written, metadata, System.currentTimeMillis()), startGeneration);
+                } else {
+                    deleteQuietly(file);
+                }
+            }
+        }
+
+        private void write(byte[] b, int off, int len) {
+            written += len;
+            if (written > maxBytes) {
+                failed = true;
+                return;
+            }
+            try {
+                output.write(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+    }
+}
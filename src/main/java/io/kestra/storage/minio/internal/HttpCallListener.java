@@ -0,0 +1,191 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Times the network phases of an HTTP call: DNS lookup, connection, TLS handshake, time to first byte and body
+ * transfer, and whether its connection was reused from the pool. The bytes of the request and response bodies are
+ * counted as they are transferred.
+ * <p>
+ * Calls longer than the slow request threshold are logged with their phases and the storage operation which sent
+ * them. As the call ends once its response body is closed, the transfer of a download includes the time spent by
+ * the reader between two reads.
+ */
+public class HttpCallListener extends EventListener {
+    private static final Logger LOG = LoggerFactory.getLogger(HttpCallListener.class);
+
+    private final Factory factory;
+    private final String operation;
+
+    private long callStart;
+    private long dnsStart;
+    private long dnsNanos;
+    private long connectStart;
+    private long connectNanos;
+    private long secureConnectStart;
+    private long tlsNanos;
+    private long requestStart;
+    private long firstByteNanos;
+    private long bodyStart;
+    private long transferNanos;
+    private boolean acquired;
+    private boolean connected;
+
+    private HttpCallListener(Factory factory, String operation) {
+        this.factory = factory;
+        this.operation = operation;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        dnsNanos += record(factory.metrics::httpDns, dnsStart);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connected = true;
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsNanos += record(factory.metrics::httpTls, secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        connectNanos += record(factory.metrics::httpConnect, connectStart);
+        factory.stats.connectionOpened();
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        acquired = true;
+        factory.stats.connectionAcquired();
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        firstByteNanos += record(factory.metrics::httpFirstByte, requestStart);
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        factory.metrics.uploaded(byteCount);
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        bodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        transferNanos += record(factory.metrics::httpTransfer, bodyStart);
+        factory.metrics.downloaded(byteCount);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        end(call, null);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        end(call, ioe);
+    }
+
+    private void end(Call call, IOException failure) {
+        long totalNanos = System.nanoTime() - callStart;
+        boolean reused = acquired && !connected;
+        factory.metrics.httpCall(totalNanos, reused);
+        factory.metrics.operationRequest(operation);
+        if (factory.slowThresholdNanos > 0 && totalNanos >= factory.slowThresholdNanos) {
+            Request request = call.request();
+            LOG.warn(
+                "Slow {} request on '{}' for operation '{}' took {} ms: dns {} ms, connect {} ms (tls {} ms), first byte {} ms, transfer {} ms, connection reused: {}{}",
+                request.method(),
+                request.url().encodedPath(),
+                operation,
+                TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                TimeUnit.NANOSECONDS.toMillis(dnsNanos),
+                TimeUnit.NANOSECONDS.toMillis(connectNanos),
+                TimeUnit.NANOSECONDS.toMillis(tlsNanos),
+                TimeUnit.NANOSECONDS.toMillis(firstByteNanos),
+                TimeUnit.NANOSECONDS.toMillis(transferNanos),
+                reused,
+                failure == null ? "" : ", failed with " + failure
+            );
+        }
+    }
+
+    private static long record(PhaseRecorder recorder, long start) {
+        long nanos = System.nanoTime() - start;
+        recorder.record(nanos);
+        return nanos;
+    }
+
+    @FunctionalInterface
+    private interface PhaseRecorder {
+        void record(long nanos);
+    }
+
+    /**
+     * Creates a listener per call, bound to the storage operation running on the thread starting the call.
+     */
+    public static class Factory implements EventListener.Factory {
+        private final MinioMetrics metrics;
+        private final HttpConnectionStats stats;
+        private final long slowThresholdNanos;
+
+        /**
+         * @param slowThreshold the duration above which calls are logged, {@code null} to never log them.
+         */
+        public Factory(MinioMetrics metrics, HttpConnectionStats stats, Duration slowThreshold) {
+            this.metrics = metrics;
+            this.stats = stats;
+            this.slowThresholdNanos = slowThreshold == null ? 0 : slowThreshold.toNanos();
+        }
+
+        @Override
+        public EventListener create(Call call) {
+            return new HttpCallListener(this, MinioMetrics.currentOperation());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.kestra.storage.minio.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the connections acquired by the HTTP calls and those which had to be opened, to size the connection pool.
+ */
+public class HttpConnectionStats {
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+
+    void connectionOpened() {
+        opened.incrementAndGet();
+    }
+
+    void connectionAcquired() {
+        acquired.incrementAndGet();
+    }
+
+    public long acquired() {
+        return acquired.get();
+    }
+
+    public long opened() {
+        return opened.get();
+    }
+
+    /**
+     * Share of the acquired connections which were reused, {@code 0} before the first call.
+     */
+    public double reuseRatio() {
+        long acquiredCount = acquired.get();
+        if (acquiredCount == 0) {
+            return 0;
+        }
+        return Math.max(0, 1 - (double) opened.get() / acquiredCount);
+    }
+}
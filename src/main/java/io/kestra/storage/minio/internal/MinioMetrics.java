@@ -0,0 +1,511 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * Meters of a storage instance, published to the Micrometer global registry and tagged by bucket and instance.
+ * <p>
+ * The instance tag keeps apart the storages of a same bucket, whose gauges would otherwise be bound to the first one
+ * registered. The meters of an instance are removed from the registry when it is closed.
+ * <p>
+ * Storage operations are timed with a latency histogram and an in-flight gauge per operation, the S3 requests they
+ * trigger being counted separately by {@link RequestMetricsInterceptor}.
+ */
+public class MinioMetrics {
+    public static final String PREFIX = "kestra.storage.minio.";
+    private static final ThreadLocal<String> CURRENT_OPERATION = new ThreadLocal<>();
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final Counter listedKeys;
+    private final Counter uploaded;
+    private final Counter downloaded;
+    private final Timer httpDns;
+    private final Timer httpConnect;
+    private final Timer httpTls;
+    private final Timer httpFirstByte;
+    private final Timer httpTransfer;
+    private final Timer httpCallReused;
+    private final Timer httpCallConnected;
+
+    public MinioMetrics(String bucket) {
+        this(Metrics.globalRegistry, bucket);
+    }
+
+    public MinioMetrics(MeterRegistry registry, String bucket) {
+        this.registry = registry;
+        this.tags = Tags.of("bucket", String.valueOf(bucket), "instance", String.valueOf(INSTANCES.incrementAndGet()));
+        this.listedKeys = Counter.builder(PREFIX + "listed.keys")
+            .description("Keys returned by the listings")
+            .tags(tags)
+            .register(registry);
+        this.uploaded = Counter.builder(PREFIX + "uploaded")
+            .description("Bytes sent in request bodies")
+            .baseUnit("bytes")
+            .tags(tags)
+            .register(registry);
+        this.downloaded = Counter.builder(PREFIX + "downloaded")
+            .description("Bytes read from response bodies")
+            .baseUnit("bytes")
+            .tags(tags)
+            .register(registry);
+        this.httpDns = phase("dns");
+        this.httpConnect = phase("connect");
+        this.httpTls = phase("tls");
+        this.httpFirstByte = phase("first.byte");
+        this.httpTransfer = phase("transfer");
+        this.httpCallReused = httpCallTimer(true);
+        this.httpCallConnected = httpCallTimer(false);
+    }
+
+    private Timer phase(String phase) {
+        return Timer.builder(PREFIX + "http.phase")
+            .description("Duration of the network phases of the HTTP calls")
+            .tags(tags)
+            .tag("phase", phase)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private Timer httpCallTimer(boolean reused) {
+        return Timer.builder(PREFIX + "http.call")
+            .description("Duration of the HTTP calls, until their response body is closed")
+            .tags(tags)
+            .tag("reused", String.valueOf(reused))
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    /**
+     * The outermost storage operation running on the current thread, {@code unknown} outside of an operation.
+     */
+    public static String currentOperation() {
+        String operation = CURRENT_OPERATION.get();
+        return operation == null ? "unknown" : operation;
+    }
+
+    /**
+     * The operation of the current thread, to be carried to the threads it hands work over to.
+     */
+    public static OperationScope currentScope() {
+        return new OperationScope(CURRENT_OPERATION.get());
+    }
+
+    public void bindPartBufferPool(PartBufferPool pool) {
+        Gauge.builder(PREFIX + "part.buffer.pooled", pool, PartBufferPool::pooledBytes)
+            .description("Bytes of idle part buffers kept for reuse")
+            .baseUnit("bytes")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(PREFIX + "part.buffer.allocations", pool, PartBufferPool::allocations)
+            .description("Part buffers allocated because none was available in the pool")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(PREFIX + "part.buffer.reuses", pool, PartBufferPool::reuses)
+            .description("Part buffers served from the pool")
+            .tags(tags)
+            .register(registry);
+    }
+
+    /**
+     * Time the given operation, failures being counted by exception type.
+     */
+    public <T> T record(String operation, IOSupplier<T> supplier) throws IOException {
+        Operation meters = operation(operation);
+        meters.inFlight().incrementAndGet();
+        boolean outermost = enterOperation(operation);
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } catch (IOException | RuntimeException e) {
+            failure(operation, e);
+            throw e;
+        } finally {
+            meters.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meters.inFlight().decrementAndGet();
+            exitOperation(outermost);
+        }
+    }
+
+    public void run(String operation, IORunnable runnable) throws IOException {
+        record(operation, () ->
+        {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Time the given asynchronous operation until its future completes.
+     */
+    public <T> CompletableFuture<T> recordAsync(String operation, Supplier<CompletableFuture<T>> supplier) {
+        Operation meters = operation(operation);
+        meters.inFlight().incrementAndGet();
+        boolean outermost = enterOperation(operation);
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = supplier.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        } finally {
+            exitOperation(outermost);
+        }
+        return future.whenComplete((result, throwable) ->
+        {
+            if (throwable != null) {
+                failure(operation, throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+            }
+            meters.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meters.inFlight().decrementAndGet();
+        });
+    }
+
+    /**
+     * Count the result of an existence check, a missing object not being a failure.
+     */
+    public void exists(boolean found) {
+        Counter.builder(PREFIX + "exists")
+            .description("Existence checks by result")
+            .tags(tags)
+            .tag("result", found ? "found" : "missing")
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Count an error response of the S3 API by its error code, e.g. {@code NoSuchKey}.
+     */
+    public void s3Error(String code) {
+        Counter.builder(PREFIX + "s3.errors")
+            .description("Error responses of the S3 API")
+            .tags(tags)
+            .tag("code", String.valueOf(code))
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Count the keys returned by a lazy listing, whose duration depends on its consumer.
+     */
+    public void listedKey() {
+        listedKeys.increment();
+    }
+
+    /**
+     * Count an HTTP request sent to the S3 API.
+     *
+     * @param call the kind of S3 call, e.g. {@code stat} or {@code put}.
+     * @param status the HTTP status of the response, {@code 0} when no response was received.
+     */
+    public void request(String call, int status) {
+        Counter.builder(PREFIX + "s3.requests")
+            .description("HTTP requests sent to the S3 API")
+            .tags(tags)
+            .tag("call", call)
+            .tag("status", String.valueOf(status))
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Count a retry of an S3 request.
+     *
+     * @param reason the HTTP status or the exception type of the failed attempt.
+     */
+    void retry(String call, String reason) {
+        Counter.builder(PREFIX + "s3.retries")
+            .description("Retries of S3 requests throttled or failed by the server or the network")
+            .tags(tags)
+            .tag("call", call)
+            .tag("reason", reason)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Count an S3 request which failed at its last allowed attempt.
+     */
+    void retryExhausted(String call, String reason) {
+        Counter.builder(PREFIX + "s3.retries.exhausted")
+            .description("S3 requests still failing after their last allowed attempt")
+            .tags(tags)
+            .tag("call", call)
+            .tag("reason", reason)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Count a retry skipped because the retry budget was empty.
+     */
+    void retryDenied(String call) {
+        Counter.builder(PREFIX + "s3.retries.denied")
+            .description("Retries skipped because the retry budget was empty")
+            .tags(tags)
+            .tag("call", call)
+            .register(registry)
+            .increment();
+    }
+
+    void httpDns(long nanos) {
+        httpDns.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void httpConnect(long nanos) {
+        httpConnect.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void httpTls(long nanos) {
+        httpTls.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void httpFirstByte(long nanos) {
+        httpFirstByte.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void httpTransfer(long nanos) {
+        httpTransfer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // the bytes actually transferred, a download closed before its end only counting what was read
+    void uploaded(long bytes) {
+        uploaded.increment(bytes);
+    }
+
+    void downloaded(long bytes) {
+        downloaded.increment(bytes);
+    }
+
+    void httpCall(long nanos, boolean reused) {
+        (reused ? httpCallReused : httpCallConnected).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count an HTTP call sent on behalf of the given storage operation.
+     */
+    void operationRequest(String operation) {
+        operation(operation).requests().increment();
+    }
+
+    // nested operations (e.g. the mkdirs of a put) are attributed to the operation called by the user
+    private static boolean enterOperation(String operation) {
+        if (CURRENT_OPERATION.get() != null) {
+            return false;
+        }
+        CURRENT_OPERATION.set(operation);
+        return true;
+    }
+
+    private static void exitOperation(boolean outermost) {
+        if (outermost) {
+            CURRENT_OPERATION.remove();
+        }
+    }
+
+    private void failure(String operation, Throwable throwable) {
+        Counter.builder(PREFIX + "operation.errors")
+            .description("Failed storage operations")
+            .tags(tags)
+            .tag("operation", operation)
+            .tag("exception", throwable.getClass().getSimpleName())
+            .register(registry)
+            .increment();
+    }
+
+    private Operation operation(String operation) {
+        return operations.computeIfAbsent(operation, name ->
+        {
+            AtomicInteger inFlight = new AtomicInteger();
+            Gauge.builder(PREFIX + "operation.inflight", inFlight, AtomicInteger::get)
+                .description("Storage operations in progress")
+                .tags(tags)
+                .tag("operation", name)
+                .register(registry);
+            Timer timer = Timer.builder(PREFIX + "operation")
+                .description("Duration of the storage operations")
+                .tags(tags)
+                .tag("operation", name)
+                .publishPercentileHistogram()
+                .register(registry);
+            Counter requests = Counter.builder(PREFIX + "operation.requests")
+                .description("HTTP calls sent by the storage operations")
+                .tags(tags)
+                .tag("operation", name)
+                .register(registry);
+            return new Operation(timer, inFlight, requests);
+        });
+    }
+
+    private record Operation(Timer timer, AtomicInteger inFlight, Counter requests) {
+    }
+
+    /**
+     * Storage operation captured on the thread calling the storage, entered again by the tasks and callbacks it hands
+     * over to other threads (virtual threads of a fan-out, continuations completed by the HTTP dispatcher) so that
+     * the HTTP calls they send are attributed to it instead of {@code unknown}.
+     *
+     * @param operation the captured operation, {@code null} when captured outside of an operation.
+     */
+    public record OperationScope(String operation) {
+        public Runnable runnable(Runnable task) {
+            if (operation == null) {
+                return task;
+            }
+            return () ->
+            {
+                boolean outermost = enterOperation(operation);
+                try {
+                    task.run();
+                } finally {
+                    exitOperation(outermost);
+                }
+            };
+        }
+
+        public <T> Callable<T> callable(Callable<T> task) {
+            if (operation == null) {
+                return task;
+            }
+            return () ->
+            {
+                boolean outermost = enterOperation(operation);
+                try {
+                    return task.call();
+                } finally {
+                    exitOperation(outermost);
+                }
+            };
+        }
+
+        public <T> Supplier<T> supplier(Supplier<T> task) {
+            if (operation == null) {
+                return task;
+            }
+            return () ->
+            {
+                boolean outermost = enterOperation(operation);
+                try {
+                    return task.get();
+                } finally {
+                    exitOperation(outermost);
+                }
+            };
+        }
+
+        public <T, R> Function<T, R> function(Function<T, R> function) {
+            if (operation == null) {
+                return function;
+            }
+            return argument ->
+            {
+                boolean outermost = enterOperation(operation);
+                try {
+                    return function.apply(argument);
+                } finally {
+                    exitOperation(outermost);
+                }
+            };
+        }
+    }
+
+    @FunctionalInterface
+    public interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface IORunnable {
+        void run() throws IOException;
+    }
+
+    public void bindHttpClient(OkHttpClient httpClient, HttpConnectionStats stats) {
+        ConnectionPool pool = httpClient.connectionPool();
+        Gauge.builder(PREFIX + "http.connections.idle", pool, ConnectionPool::idleConnectionCount)
+            .description("Idle connections of the HTTP connection pool")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder(PREFIX + "http.connections.total", pool, ConnectionPool::connectionCount)
+            .description("Idle and in-use connections of the HTTP connection pool")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(PREFIX + "http.connections.acquired", stats, HttpConnectionStats::acquired)
+            .description("Connections acquired by HTTP calls, opened or reused")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(PREFIX + "http.connections.opened", stats, HttpConnectionStats::opened)
+            .description("Connections opened by HTTP calls because none could be reused")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder(PREFIX + "http.connections.reuse.ratio", stats, HttpConnectionStats::reuseRatio)
+            .description("Share of the acquired connections which were reused from the pool")
+            .tags(tags)
+            .register(registry);
+
+        Dispatcher dispatcher = httpClient.dispatcher();
+        Gauge.builder(PREFIX + "http.calls.running", dispatcher, Dispatcher::runningCallsCount)
+            .description("Asynchronous HTTP calls in flight")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder(PREFIX + "http.calls.queued", dispatcher, Dispatcher::queuedCallsCount)
+            .description("Asynchronous HTTP calls waiting for the dispatcher limits")
+            .tags(tags)
+            .register(registry);
+    }
+
+    public void bindRetryBudget(RetryBudget budget) {
+        Gauge.builder(PREFIX + "retry.budget.tokens", budget, RetryBudget::tokens)
+            .description("Retries the S3 requests may still send before being limited to a share of the successful requests")
+            .tags(tags)
+            .register(registry);
+    }
+
+    public void bindUploadMemoryBudget(UploadMemoryBudget budget) {
+        Gauge.builder(PREFIX + "upload.memory.budget", budget, UploadMemoryBudget::maxBytes)
+            .description("Bytes of part buffers the uploads may hold at once")
+            .baseUnit("bytes")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder(PREFIX + "upload.memory.reserved", budget, UploadMemoryBudget::reservedBytes)
+            .description("Bytes of part buffers currently held by the uploads")
+            .baseUnit("bytes")
+            .tags(tags)
+            .register(registry);
+        FunctionTimer.builder(PREFIX + "upload.memory.wait", budget, UploadMemoryBudget::waits, b -> b.waitingTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+            .description("Time spent by uploads waiting for part buffer memory")
+            .tags(tags)
+            .register(registry);
+    }
+
+    /**
+     * Remove the meters of this instance from the registry.
+     */
+    public void close() {
+        Search.in(registry).tags(tags).meters().forEach(registry::remove);
+        operations.clear();
+    }
+}
@@ -0,0 +1,292 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.minio.AbortMultipartUploadArgs;
+import io.minio.CompleteMultipartUploadArgs;
+import io.minio.CreateMultipartUploadArgs;
+import io.minio.MinioAsyncClient;
+import io.minio.PutObjectArgs;
+import io.minio.UploadPartArgs;
+import io.minio.errors.MinioException;
+import io.minio.messages.Part;
+
+/**
+ * Uploads a stream as a multipart upload with several parts in flight.
+ * <p>
+ * Parts are read sequentially from the stream while up to {@code parallelism} of them are being uploaded, so at most
+ * {@code parallelism + 1} part buffers are held at a time. A stream ending within its first part is sent with a single
+ * PUT request.
+ * <p>
+ * When the stream length is known, parts have a fixed size large enough to fit in {@link #MAX_PARTS} parts.
+ * Otherwise, the part size starts at the configured one and doubles every {@link #PARTS_PER_SIZE_STEP} parts,
+ * so that small streams don't allocate huge buffers while huge ones don't hit the parts limit.
+ * <p>
+ * Part buffers come from the {@link PartBufferPool} of the storage and are given back once their part is sent.
+ * <p>
+ * The first failed part stops the reading of the stream. The parts still in flight are awaited, their buffers being
+ * given back, before the upload is aborted.
+ */
+public class MultipartUploader {
+    private static final Logger LOG = LoggerFactory.getLogger(MultipartUploader.class);
+    static final int MAX_PARTS = 10_000;
+    static final int PARTS_PER_SIZE_STEP = 1_000;
+    static final int MAX_PART_SIZE = 1024 * 1024 * 1024;
+
+    private final MinioAsyncClient minioAsyncClient;
+    private final String bucket;
+    private final int partSize;
+    private final int parallelism;
+    private final PartBufferPool bufferPool;
+
+    public MultipartUploader(MinioAsyncClient minioAsyncClient, String bucket, long partSize, int parallelism, PartBufferPool bufferPool) {
+        this.minioAsyncClient = minioAsyncClient;
+        this.bucket = bucket;
+        this.partSize = Math.toIntExact(partSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * @param length the length of the stream, or {@link StreamLength#UNKNOWN}.
+     * @throws MinioException when a request failed, left for the caller to translate and count like any other call.
+     */
+    public void upload(String object, InputStream data, long length, Map<String, String> userMetadata) throws IOException, MinioException {
+        int fixedPartSize = length == StreamLength.UNKNOWN ? -1 : partSizeFor(length, partSize);
+        int firstPartSize = fixedPartSize > 0 ? fixedPartSize : partSize(1);
+        byte[] first = bufferPool.acquire(firstPartSize);
+        int firstLength;
+        try {
+            firstLength = data.readNBytes(first, 0, firstPartSize);
+        } catch (IOException e) {
+            bufferPool.release(first);
+            throw e;
+        }
+        if (firstLength < firstPartSize) {
+            try {
+                execute(() -> minioAsyncClient.putObject(
+                    PutObjectArgs.builder()
+                        .bucket(bucket)
+                        .object(object)
+                        .userMetadata(userMetadata)
+                        .data(first, firstLength)
+                        .build()
+                ));
+            } finally {
+                bufferPool.release(first);
+            }
+            return;
+        }
+
+        String uploadId;
+        try {
+            uploadId = execute(() -> minioAsyncClient.createMultipartUpload(
+                CreateMultipartUploadArgs.builder()
+                    .bucket(bucket)
+                    .object(object)
+                    .userMetadata(userMetadata)
+                    .build()
+            )).result().uploadId();
+        } catch (IOException | MinioException | RuntimeException e) {
+            bufferPool.release(first);
+            throw e;
+        }
+
+        Semaphore permits = new Semaphore(parallelism);
+        List<CompletableFuture<Part>> parts = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            byte[] buffer = first;
+            int currentPartSize = firstPartSize;
+            int read = firstLength;
+            int partNumber = 1;
+            while (true) {
+                byte[] sent = buffer;
+                try {
+                    acquire(permits);
+                    throwIfFailed(failure);
+                } catch (IOException | MinioException e) {
+                    bufferPool.release(sent);
+                    throw e;
+                }
+                CompletableFuture<Part> part = uploadPart(object, uploadId, partNumber, sent, read);
+                // on the upload itself, never cancelled, so that the buffer and the permit are always given back
+                part.whenComplete((uploaded, throwable) ->
+                {
+                    if (throwable != null) {
+                        failure.compareAndSet(null, throwable);
+                    }
+                    bufferPool.release(sent);
+                    permits.release();
+                });
+                parts.add(part);
+                if (read < currentPartSize) {
+                    break;
+                }
+
+                partNumber++;
+                if (partNumber > MAX_PARTS) {
+                    throw new IOException("Unable to upload '" + object + "', more than " + MAX_PARTS + " parts are needed");
+                }
+                // stop reading the stream as soon as a part failed
+                throwIfFailed(failure);
+                currentPartSize = fixedPartSize > 0 ? fixedPartSize : partSize(partNumber);
+                buffer = bufferPool.acquire(currentPartSize);
+                try {
+                    read = data.readNBytes(buffer, 0, currentPartSize);
+                } catch (IOException e) {
+                    bufferPool.release(buffer);
+                    throw e;
+                }
+                if (read == 0) {
+                    bufferPool.release(buffer);
+                    break;
+                }
+            }
+
+            Part[] uploaded = new Part[parts.size()];
+            for (int i = 0; i < parts.size(); i++) {
+                uploaded[i] = join(parts.get(i));
+            }
+            execute(() -> minioAsyncClient.completeMultipartUpload(
+                CompleteMultipartUploadArgs.builder()
+                    .bucket(bucket)
+                    .object(object)
+                    .uploadId(uploadId)
+                    .parts(uploaded)
+                    .build()
+            ));
+        } catch (IOException | MinioException | RuntimeException e) {
+            // parts still in flight would be stored again after the abort
+            awaitQuietly(parts);
+            abort(object, uploadId);
+            throw e;
+        }
+    }
+
+    private static void throwIfFailed(AtomicReference<Throwable> failure) throws IOException, MinioException {
+        Throwable throwable = failure.get();
+        if (throwable == null) {
+            return;
+        }
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof MinioException minioException) {
+            throw minioException;
+        }
+        if (cause instanceof IOException ioException) {
+            throw new IOException(ioException.getMessage(), ioException);
+        }
+        throw new IOException(cause);
+    }
+
+    private static void awaitQuietly(List<CompletableFuture<Part>> parts) {
+        try {
+            CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).handle((ignored, throwable) -> null).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // failures of the parts are ignored, the upload is aborted anyway
+        }
+    }
+
+    /**
+     * The smallest part size fitting an upload of the given length in {@link #MAX_PARTS} parts, but never less than
+     * the configured part size.
+     */
+    private static int partSizeFor(long length, long partSize) {
+        long size = Math.max(partSize, (length + MAX_PARTS - 1) / MAX_PARTS);
+        return (int) Math.min(size, Math.max(partSize, MAX_PART_SIZE));
+    }
+
+    private int partSize(int partNumber) {
+        long size = (long) partSize << Math.min((partNumber - 1) / PARTS_PER_SIZE_STEP, 20);
+        return (int) Math.min(size, Math.max(partSize, MAX_PART_SIZE));
+    }
+
+    private CompletableFuture<Part> uploadPart(String object, String uploadId, int partNumber, byte[] buffer, int length) {
+        try {
+            return minioAsyncClient.uploadPart(
+                UploadPartArgs.builder()
+                    .bucket(bucket)
+                    .object(object)
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+                    .data(buffer, length)
+                    .build()
+            ).thenApply(response -> new Part(partNumber, response.etag()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void abort(String object, String uploadId) {
+        try {
+            execute(() -> minioAsyncClient.abortMultipartUpload(
+                AbortMultipartUploadArgs.builder()
+                    .bucket(bucket)
+                    .object(object)
+                    .uploadId(uploadId)
+                    .build()
+            ));
+        } catch (Exception e) {
+            LOG.warn("Failed to abort multipart upload '{}' of '{}'", uploadId, object, e);
+        }
+    }
+
+    private static void acquire(Semaphore permits) throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    private static <T> T execute(AsyncCall<T> call) throws IOException, MinioException {
+        CompletableFuture<T> future;
+        try {
+            future = call.call();
+        } catch (IOException | MinioException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        return join(future);
+    }
+
+    // errors of the S3 API are given back as is, to be translated by the storage like those of any other call
+    private static <T> T join(CompletableFuture<T> future) throws IOException, MinioException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MinioException minioException) {
+                throw minioException;
+            }
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface AsyncCall<T> {
+        CompletableFuture<T> call() throws Exception;
+    }
+}
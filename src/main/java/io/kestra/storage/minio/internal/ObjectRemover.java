@@ -0,0 +1,134 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.messages.DeleteRequest;
+import io.minio.messages.DeleteResult;
+
+/**
+ * Removes objects in multi-object delete requests while keys are still being produced.
+ * <p>
+ * Keys are grouped in batches of at most {@link #MAX_BATCH_SIZE} (the S3 limit) which are sent on virtual threads,
+ * with at most {@code maxConcurrentBatches} requests in flight. Memory is thus bounded to the pending batches whatever
+ * the number of removed keys. Failures are collected per key and available once the remover is closed.
+ */
+public class ObjectRemover implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(ObjectRemover.class);
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final MinioClient minioClient;
+    private final String bucket;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+    private final AtomicLong removed = new AtomicLong();
+    private List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+    public ObjectRemover(MinioClient minioClient, String bucket, int maxConcurrentBatches) {
+        this.minioClient = minioClient;
+        this.bucket = bucket;
+        this.permits = new Semaphore(Math.max(1, maxConcurrentBatches));
+    }
+
+    /**
+     * Queue the given key for removal, blocking while the maximum number of batches are in flight.
+     */
+    public void remove(String key) throws InterruptedIOException {
+        List<String> full = null;
+        synchronized (this) {
+            batch.add(key);
+            if (batch.size() >= MAX_BATCH_SIZE) {
+                full = batch;
+                batch = new ArrayList<>(MAX_BATCH_SIZE);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    /**
+     * Number of keys whose removal has been acknowledged so far.
+     */
+    public long removed() {
+        return removed.get();
+    }
+
+    /**
+     * Failed keys with the reason of their failure, complete once the remover is closed.
+     */
+    public Map<String, String> failures() {
+        return failures;
+    }
+
+    private void send(List<String> keys) throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+        // the batch requests are attributed to the operation removing the keys
+        executor.submit(MinioMetrics.currentScope().runnable(() ->
+        {
+            try {
+                Iterable<Result<DeleteResult.Error>> results = this.minioClient.removeObjects(
+                    RemoveObjectsArgs.builder()
+                        .bucket(bucket)
+                        .objects(keys.stream().map(DeleteRequest.Object::new).toList())
+                        .build()
+                );
+                int failed = 0;
+                for (Result<DeleteResult.Error> result : results) {
+                    DeleteResult.Error error = result.get();
+                    failures.put(error.objectName(), error.message());
+                    failed++;
+                }
+                long total = removed.addAndGet(keys.size() - failed);
+                if (failed > 0) {
+                    LOG.warn("Failed to remove {} of {} objects from bucket '{}'", failed, keys.size(), bucket);
+                }
+                LOG.debug("Removed {} objects from bucket '{}' so far", total, bucket);
+            } catch (Exception e) {
+                LOG.warn("Failed to remove {} objects from bucket '{}'", keys.size(), bucket, e);
+                keys.forEach(key -> failures.put(key, String.valueOf(e.getMessage())));
+            } finally {
+                permits.release();
+            }
+        }));
+    }
+
+    /**
+     * Send the last batch and wait for every in-flight request to complete.
+     */
+    @Override
+    public void close() throws IOException {
+        List<String> last;
+        synchronized (this) {
+            last = batch;
+            batch = new ArrayList<>();
+        }
+        try {
+            if (!last.isEmpty()) {
+                send(last);
+            }
+        } finally {
+            executor.close();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+
+/**
+ * Stream of an object downloaded with concurrent range requests.
+ * <p>
+ * The object is split in chunks of {@code chunkSize} bytes, up to {@code parallelism} chunks ahead of the reader being
+ * downloaded concurrently, and served in order. Memory is thus bounded to {@code parallelism} chunks. Every range
+ * request is conditioned on the ETag of the first one so that an object overwritten during the download fails the
+ * read instead of mixing two versions.
+ */
+public class ParallelRangeInputStream extends InputStream {
+    private final MinioClient minioClient;
+    private final String bucket;
+    private final String object;
+    private final String etag;
+    private final long size;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // range requests sent while the stream is read still belong to the operation which created it
+    private final MinioMetrics.OperationScope scope = MinioMetrics.currentScope();
+    private final Deque<Future<byte[]>> window = new ArrayDeque<>();
+
+    private long nextOffset;
+    private byte[] chunk = new byte[0];
+    private int position;
+    private boolean closed;
+
+    /**
+     * @param first the response of the range request of the first chunk, consumed by this stream.
+     */
+    public ParallelRangeInputStream(
+        MinioClient minioClient,
+        String bucket,
+        String object,
+        String etag,
+        long size,
+        int chunkSize,
+        int parallelism,
+        GetObjectResponse first
+    ) {
+        this.minioClient = minioClient;
+        this.bucket = bucket;
+        this.object = object;
+        this.etag = etag;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.parallelism = Math.max(1, parallelism);
+
+        this.window.add(executor.submit(() ->
+        {
+            try (first) {
+                return first.readAllBytes();
+            }
+        }));
+        this.nextOffset = Math.min(chunkSize, size);
+        fillWindow();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureChunk()) {
+            return -1;
+        }
+        return chunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureChunk()) {
+            return -1;
+        }
+        int read = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return chunk.length - position;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        window.forEach(future -> future.cancel(true));
+        window.clear();
+        executor.shutdownNow();
+    }
+
+    private boolean ensureChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (position >= chunk.length) {
+            Future<byte[]> next = window.pollFirst();
+            if (next == null) {
+                return false;
+            }
+            try {
+                chunk = next.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IOException("Unable to download '" + object + "'", e.getCause());
+            }
+            position = 0;
+            fillWindow();
+        }
+        return true;
+    }
+
+    private void fillWindow() {
+        while (window.size() < parallelism && nextOffset < size) {
+            long offset = nextOffset;
+            long length = Math.min(chunkSize, size - offset);
+            window.addLast(executor.submit(scope.callable(() -> download(offset, length))));
+            nextOffset += length;
+        }
+    }
+
+    private byte[] download(long offset, long length) throws Exception {
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+            .bucket(bucket)
+            .object(object)
+            .offset(offset)
+            .length(length);
+        if (etag != null) {
+            args.matchETag(etag);
+        }
+        try (GetObjectResponse response = minioClient.getObject(args.build())) {
+            return response.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.InterruptedIOException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of the buffers holding the parts of multipart uploads, shared by all the uploads of a storage instance.
+ * <p>
+ * Buffers are grouped in size classes (the base part size times a power of two) so that parts of slightly different
+ * sizes reuse the same buffers. At most {@code maxPooledBytes} of idle buffers are kept, extra released buffers are
+ * left to the garbage collector. A pool with {@code maxPooledBytes} lower than or equal to zero never keeps anything.
+ * <p>
+ * When an {@link UploadMemoryBudget} is given, acquiring a buffer reserves its size from the budget, blocking while the
+ * budget is exhausted, and releasing it gives the memory back. Every acquired buffer must thus be released.
+ */
+public class PartBufferPool {
+    private final int baseSize;
+    private final long maxPooledBytes;
+    private final UploadMemoryBudget budget;
+    private final Map<Integer, Deque<byte[]>> idle = new ConcurrentHashMap<>();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+
+    public PartBufferPool(long baseSize, long maxPooledBytes) {
+        this(baseSize, maxPooledBytes, null);
+    }
+
+    public PartBufferPool(long baseSize, long maxPooledBytes, UploadMemoryBudget budget) {
+        this.baseSize = Math.toIntExact(baseSize);
+        this.maxPooledBytes = maxPooledBytes;
+        this.budget = budget;
+    }
+
+    /**
+     * @return a buffer of at least {@code minSize} bytes, whose content is undefined.
+     */
+    public byte[] acquire(int minSize) throws InterruptedIOException {
+        int size = sizeClass(minSize);
+        if (budget != null) {
+            budget.reserve(size);
+        }
+        Deque<byte[]> buffers = idle.get(size);
+        byte[] buffer = buffers == null ? null : buffers.pollFirst();
+        if (buffer != null) {
+            pooledBytes.addAndGet(-buffer.length);
+            reuses.incrementAndGet();
+            return buffer;
+        }
+        allocations.incrementAndGet();
+        return new byte[size];
+    }
+
+    /**
+     * Give a buffer back once nothing reads it anymore.
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null) {
+            return;
+        }
+        if (budget != null) {
+            budget.release(buffer.length);
+        }
+        if (maxPooledBytes <= 0) {
+            return;
+        }
+        if (pooledBytes.addAndGet(buffer.length) > maxPooledBytes) {
+            pooledBytes.addAndGet(-buffer.length);
+            return;
+        }
+        idle.computeIfAbsent(buffer.length, key -> new ConcurrentLinkedDeque<>()).offerFirst(buffer);
+    }
+
+    public long pooledBytes() {
+        return pooledBytes.get();
+    }
+
+    public long allocations() {
+        return allocations.get();
+    }
+
+    public long reuses() {
+        return reuses.get();
+    }
+
+    private int sizeClass(int minSize) {
+        if (minSize <= baseSize) {
+            return baseSize;
+        }
+        long size = baseSize;
+        while (size < minSize) {
+            size <<= 1;
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE - 8);
+    }
+}
@@ -0,0 +1,178 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+
+/**
+ * Read-only random access to an object through range requests.
+ * <p>
+ * The object is read by blocks of {@code blockSize} bytes kept in a small LRU cache, so that reading a footer or a
+ * slice only downloads the blocks it covers. Consecutive misses on following blocks are detected as a sequential read
+ * and fetch several blocks in a single request, the read-ahead doubling up to half the cache size.
+ */
+public class RangeReadChannel implements SeekableByteChannel {
+    private final MinioClient minioClient;
+    private final String bucket;
+    private final String object;
+    private final String etag;
+    private final long size;
+    private final int blockSize;
+    private final int maxReadAhead;
+    private final Map<Long, byte[]> blocks;
+
+    private long position;
+    private long nextSequentialBlock = -1;
+    private int readAhead = 1;
+    private long fetchedBytes;
+    private boolean open = true;
+
+    public RangeReadChannel(MinioClient minioClient, String bucket, String object, String etag, long size, int blockSize, int maxCachedBlocks) {
+        this.minioClient = minioClient;
+        this.bucket = bucket;
+        this.object = object;
+        this.etag = etag;
+        this.size = size;
+        this.blockSize = blockSize;
+        this.maxReadAhead = Math.max(1, maxCachedBlocks / 2);
+        this.blocks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > Math.max(1, maxCachedBlocks);
+            }
+        };
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= size) {
+            return -1;
+        }
+        int read = 0;
+        while (dst.hasRemaining() && position < size) {
+            long index = position / blockSize;
+            byte[] block = block(index);
+            int offset = (int) (position - index * blockSize);
+            int length = Math.min(dst.remaining(), block.length - offset);
+            dst.put(block, offset, length);
+            position += length;
+            read += length;
+        }
+        return read;
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must be positive, got " + newPosition);
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Number of bytes downloaded so far.
+     */
+    public long fetchedBytes() {
+        return fetchedBytes;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        blocks.clear();
+    }
+
+    private byte[] block(long index) throws IOException {
+        byte[] block = blocks.get(index);
+        if (block != null) {
+            return block;
+        }
+
+        readAhead = index == nextSequentialBlock ? Math.min(readAhead * 2, maxReadAhead) : 1;
+        long blockCount = (size + blockSize - 1) / blockSize;
+        long count = Math.min(readAhead, blockCount - index);
+        long offset = index * blockSize;
+        long length = Math.min(count * blockSize, size - offset);
+
+        byte[] bytes = fetch(offset, length);
+        for (int i = 0; i < count; i++) {
+            int from = i * blockSize;
+            int to = (int) Math.min(from + (long) blockSize, bytes.length);
+            byte[] fetched = new byte[to - from];
+            System.arraycopy(bytes, from, fetched, 0, fetched.length);
+            blocks.put(index + i, fetched);
+            if (i == 0) {
+                block = fetched;
+            }
+        }
+        nextSequentialBlock = index + count;
+        return block;
+    }
+
+    private byte[] fetch(long offset, long length) throws IOException {
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+            .bucket(bucket)
+            .object(object)
+            .offset(offset)
+            .length(length);
+        if (etag != null) {
+            args.matchETag(etag);
+        }
+        try (GetObjectResponse response = minioClient.getObject(args.build())) {
+            byte[] bytes = response.readAllBytes();
+            fetchedBytes += bytes.length;
+            if (bytes.length != length) {
+                throw new IOException("Unexpected range length for '" + object + "', expected " + length + " bytes but got " + bytes.length);
+            }
+            return bytes;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
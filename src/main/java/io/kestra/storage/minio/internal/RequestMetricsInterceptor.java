@@ -0,0 +1,69 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Counts the HTTP requests sent to the S3 API by kind of call and response status, so that the number of requests
+ * behind each storage operation is visible. The transferred bytes are counted by {@link HttpCallListener}.
+ */
+public class RequestMetricsInterceptor implements Interceptor {
+    private final MinioMetrics metrics;
+
+    public RequestMetricsInterceptor(MinioMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String call = call(request);
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            metrics.request(call, 0);
+            throw e;
+        }
+        metrics.request(call, response.code());
+        return response;
+    }
+
+    static String call(Request request) {
+        HttpUrl url = request.url();
+        return switch (request.method()) {
+            case "HEAD" -> "stat";
+            case "DELETE" -> url.queryParameter("uploadId") != null ? "abortMultipart" : "remove";
+            case "POST" -> {
+                if (url.queryParameterNames().contains("delete")) {
+                    yield "removeBatch";
+                }
+                if (url.queryParameterNames().contains("uploads")) {
+                    yield "createMultipart";
+                }
+                yield url.queryParameter("uploadId") != null ? "completeMultipart" : "post";
+            }
+            case "PUT" -> {
+                if (request.header("x-amz-copy-source") != null) {
+                    yield "copy";
+                }
+                yield url.queryParameter("partNumber") != null ? "uploadPart" : "put";
+            }
+            case "GET" -> {
+                if (url.queryParameterNames().contains("location")) {
+                    yield "location";
+                }
+                if (url.queryParameterNames().contains("list-type") || url.queryParameter("prefix") != null || url.queryParameterNames().contains("delimiter")) {
+                    yield "list";
+                }
+                yield "get";
+            }
+            default -> request.method().toLowerCase(Locale.ROOT);
+        };
+    }
+}
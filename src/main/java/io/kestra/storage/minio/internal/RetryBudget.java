@@ -0,0 +1,39 @@
+package io.kestra.storage.minio.internal;
+
+/**
+ * Retries that the requests of a storage instance may send, shared by all of them.
+ * <p>
+ * A retry withdraws one token and a request succeeding at its first attempt deposits {@code depositPerSuccess}
+ * tokens, up to {@code maxTokens}. Once a burst of retries has drained the budget, retries are limited to a share of
+ * the successful requests, which keeps them from amplifying the load of a server that is already overloaded.
+ */
+public class RetryBudget {
+    private final double maxTokens;
+    private final double depositPerSuccess;
+    private double tokens;
+
+    public RetryBudget(int maxTokens, double depositPerSuccess) {
+        this.maxTokens = Math.max(0, maxTokens);
+        this.depositPerSuccess = depositPerSuccess;
+        this.tokens = this.maxTokens;
+    }
+
+    /**
+     * @return whether a retry may be sent, its token being withdrawn.
+     */
+    public synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + depositPerSuccess);
+    }
+
+    public synchronized double tokens() {
+        return tokens;
+    }
+}
@@ -0,0 +1,136 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.kestra.storage.minio.domains.RetryConfiguration;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retries the idempotent S3 requests throttled or failed by the server ({@code 503 SlowDown}, 5xx) or by the network
+ * (connection reset, timeout), with an exponential backoff and jitter.
+ * <p>
+ * Requests creating or completing multipart uploads and plain puts are never retried, nor are errors happening
+ * while reading a response body. Retries are bounded by the attempts of the configuration and by a {@link RetryBudget}
+ * shared by every request of the storage.
+ */
+public class RetryInterceptor implements Interceptor {
+    private static final Logger LOG = LoggerFactory.getLogger(RetryInterceptor.class);
+    private static final Set<String> IDEMPOTENT_CALLS = Set.of("stat", "get", "list", "location", "copy", "remove", "removeBatch", "uploadPart", "abortMultipart");
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 500, 502, 503, 504);
+    private static final double DEPOSIT_PER_SUCCESS = 0.1;
+
+    private final MinioMetrics metrics;
+    private final RetryBudget budget;
+    private final int maxAttempts;
+    private final long initialDelayNanos;
+    private final long maxDelayNanos;
+    private final double jitter;
+
+    public RetryInterceptor(MinioMetrics metrics, RetryConfiguration configuration) {
+        validate(configuration);
+        this.metrics = metrics;
+        this.budget = new RetryBudget(configuration.getBudget(), DEPOSIT_PER_SUCCESS);
+        this.maxAttempts = configuration.getMaxAttempts();
+        this.initialDelayNanos = configuration.getInitialDelay().toNanos();
+        this.maxDelayNanos = configuration.getMaxDelay().toNanos();
+        this.jitter = configuration.getJitter();
+        metrics.bindRetryBudget(budget);
+    }
+
+    // also checked here since a storage built programmatically skips the validation of the plugin properties
+    private static void validate(RetryConfiguration configuration) {
+        if (configuration.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("Retry max attempts must be at least 1, got " + configuration.getMaxAttempts());
+        }
+        if (configuration.getInitialDelay() == null || configuration.getInitialDelay().isNegative()) {
+            throw new IllegalArgumentException("Retry initial delay must not be negative, got " + configuration.getInitialDelay());
+        }
+        if (configuration.getMaxDelay() == null || configuration.getMaxDelay().compareTo(configuration.getInitialDelay()) < 0) {
+            throw new IllegalArgumentException("Retry max delay must be at least the initial delay " + configuration.getInitialDelay() + ", got " + configuration.getMaxDelay());
+        }
+        if (!(configuration.getJitter() >= 0.0 && configuration.getJitter() <= 1.0)) {
+            throw new IllegalArgumentException("Retry jitter must be between 0 and 1, got " + configuration.getJitter());
+        }
+        if (configuration.getBudget() < 0) {
+            throw new IllegalArgumentException("Retry budget must not be negative, got " + configuration.getBudget());
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String call = RequestMetricsInterceptor.call(request);
+        if (maxAttempts == 1 || !IDEMPOTENT_CALLS.contains(call) || (request.body() != null && request.body().isOneShot())) {
+            return chain.proceed(request);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            String reason;
+            try {
+                Response response = chain.proceed(request);
+                if (!RETRYABLE_STATUSES.contains(response.code())) {
+                    if (attempt == 1) {
+                        budget.deposit();
+                    }
+                    return response;
+                }
+                reason = String.valueOf(response.code());
+                if (!retry(chain, call, reason, attempt)) {
+                    return response;
+                }
+                response.close();
+            } catch (IOException e) {
+                reason = e.getClass().getSimpleName();
+                if (!retry(chain, call, reason, attempt)) {
+                    throw e;
+                }
+            }
+
+            LOG.debug("Retrying {} {} after a failed attempt ({}), attempt {} of {}", request.method(), request.url().encodedPath(), reason, attempt + 1, maxAttempts);
+            sleep(delayNanos(attempt));
+        }
+    }
+
+    private boolean retry(Chain chain, String call, String reason, int attempt) {
+        if (attempt >= maxAttempts || chain.call().isCanceled()) {
+            metrics.retryExhausted(call, reason);
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            metrics.retryDenied(call);
+            return false;
+        }
+        metrics.retry(call, reason);
+        return true;
+    }
+
+    /**
+     * The exponential delay before the retry following the given attempt, {@code jitter} of it being randomized.
+     */
+    long delayNanos(int attempt) {
+        double delay = Math.min(maxDelayNanos, initialDelayNanos * Math.pow(2, attempt - 1));
+        return (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Detect the remaining length of the streams for which it is known without reading them.
+ */
+public final class StreamLength {
+    public static final long UNKNOWN = -1L;
+
+    private StreamLength() {
+    }
+
+    /**
+     * @return the number of bytes left in the stream, or {@link #UNKNOWN}.
+     */
+    public static long of(InputStream inputStream) {
+        // available() is only the remaining length for in-memory streams, other streams may return any lower bound
+        if (inputStream instanceof ByteArrayInputStream byteArrayInputStream) {
+            return byteArrayInputStream.available();
+        }
+        if (inputStream instanceof FileInputStream fileInputStream) {
+            try {
+                FileChannel channel = fileInputStream.getChannel();
+                return channel.size() - channel.position();
+            } catch (IOException e) {
+                return UNKNOWN;
+            }
+        }
+        return UNKNOWN;
+    }
+}
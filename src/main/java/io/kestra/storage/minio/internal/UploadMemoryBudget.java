@@ -0,0 +1,96 @@
+package io.kestra.storage.minio.internal;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bytes of part buffers that the concurrent uploads of a storage instance may hold at once.
+ * <p>
+ * An upload needing more than what is left blocks until other uploads release their buffers. A single reservation
+ * larger than the whole budget is granted once nothing else is reserved, so that it cannot wait forever.
+ */
+public class UploadMemoryBudget {
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    private long reservedBytes;
+    private long waitingNanos;
+    private long waits;
+
+    public UploadMemoryBudget(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public void reserve(long bytes) throws InterruptedIOException {
+        lock.lock();
+        try {
+            if (!fits(bytes)) {
+                long start = System.nanoTime();
+                waits++;
+                try {
+                    while (!fits(bytes)) {
+                        released.await();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException(e.getMessage());
+                } finally {
+                    waitingNanos += System.nanoTime() - start;
+                }
+            }
+            reservedBytes += bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long bytes) {
+        lock.lock();
+        try {
+            reservedBytes = Math.max(0, reservedBytes - bytes);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public long reservedBytes() {
+        lock.lock();
+        try {
+            return reservedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of reservations that had to wait for memory to be released.
+     */
+    public long waits() {
+        lock.lock();
+        try {
+            return waits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double waitingTime(TimeUnit unit) {
+        lock.lock();
+        try {
+            return (double) waitingNanos / unit.toNanos(1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(long bytes) {
+        return reservedBytes == 0 || reservedBytes + bytes <= maxBytes;
+    }
+}
@@ -0,0 +1,637 @@
+package io.kestra.storage.minio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process S3 server covering the calls of {@link MinioStorage}, to test it without Docker.
+ * <p>
+ * Supported calls: bucket location, head and creation, stat, get with ranges and {@code If-Match}, put, copy,
+ * multipart uploads, ListObjectsV2 (with the MinIO user metadata extension) and multi-object delete. Only path-style
+ * requests are handled and signatures are not checked. Objects are kept in memory.
+ * <p>
+ * Requests can be slowed down with a fixed latency and a bandwidth cap, rejected with {@code 503 SlowDown}, and are
+ * counted by kind of call (e.g. {@code stat}, {@code put}, {@code list}) so that tests can assert request counts.
+ */
+public class FakeS3Server implements AutoCloseable {
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+        .withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter ISO_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+        .withZone(ZoneOffset.UTC);
+    private static final String USER_METADATA_PREFIX = "x-amz-meta-";
+    private static final Pattern PART = Pattern.compile("<Part>.*?<PartNumber>(\\d+)</PartNumber>.*?</Part>", Pattern.DOTALL);
+    private static final Pattern KEY = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, NavigableMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile long bandwidth;
+    private volatile double slowDownProbability;
+    private final AtomicInteger slowDownNext = new AtomicInteger();
+    private final Set<String> slowDownCalls = ConcurrentHashMap.newKeySet();
+
+    private FakeS3Server(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Start a server on a free local port.
+     */
+    public static FakeS3Server start() throws IOException {
+        FakeS3Server fake = new FakeS3Server(HttpServer.create(new InetSocketAddress("localhost", 0), 0));
+        fake.server.setExecutor(fake.executor);
+        fake.server.createContext("/", fake::handle);
+        fake.server.start();
+        return fake;
+    }
+
+    public String endpoint() {
+        return "localhost";
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public FakeS3Server createBucket(String bucket) {
+        buckets.putIfAbsent(bucket, new ConcurrentSkipListMap<>());
+        return this;
+    }
+
+    /**
+     * Delay added before handling each request.
+     */
+    public FakeS3Server latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Maximum bytes per second of each request and response body, {@code 0} for no limit.
+     */
+    public FakeS3Server bandwidth(long bytesPerSecond) {
+        this.bandwidth = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Probability of rejecting a request with {@code 503 SlowDown}.
+     */
+    public FakeS3Server slowDownProbability(double probability) {
+        this.slowDownProbability = probability;
+        return this;
+    }
+
+    /**
+     * Reject the next requests with {@code 503 SlowDown}.
+     */
+    public FakeS3Server slowDownNext(int requests) {
+        this.slowDownNext.set(requests);
+        return this;
+    }
+
+    /**
+     * Reject every request of the given kinds of call with {@code 503 SlowDown}, e.g. {@code uploadPart}.
+     */
+    public FakeS3Server slowDownCalls(String... calls) {
+        this.slowDownCalls.addAll(List.of(calls));
+        return this;
+    }
+
+    /**
+     * Number of requests received for the given kind of call, e.g. {@code stat}, {@code put} or {@code uploadPart}.
+     */
+    public int requestCount(String call) {
+        AtomicInteger count = requests.get(call);
+        return count == null ? 0 : count.get();
+    }
+
+    public int requestCount() {
+        return requests.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    public Map<String, Integer> requestCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        requests.forEach((call, count) -> counts.put(call, count.get()));
+        return counts;
+    }
+
+    public void resetRequestCounts() {
+        requests.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            int separator = path.indexOf('/', 1);
+            String bucket = separator < 0 ? path.substring(1) : path.substring(1, separator);
+            String key = separator < 0 ? "" : path.substring(separator + 1);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String call = call(exchange, key, query);
+            requests.computeIfAbsent(call, ignored -> new AtomicInteger()).incrementAndGet();
+
+            sleep(latency.toNanos());
+            byte[] body = readBody(exchange);
+            if (slowDownCalls.contains(call)
+                || slowDownNext.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0
+                || (slowDownProbability > 0 && ThreadLocalRandom.current().nextDouble() < slowDownProbability)) {
+                error(exchange, 503, "SlowDown", "Please reduce your request rate.", bucket, key);
+                return;
+            }
+
+            NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+            if (objects == null && !call.equals("makeBucket")) {
+                error(exchange, 404, "NoSuchBucket", "The specified bucket does not exist", bucket, key);
+                return;
+            }
+            switch (call) {
+                case "location" -> xml(exchange, 200, "<LocationConstraint xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"></LocationConstraint>");
+                case "headBucket" -> send(exchange, 200, null);
+                case "makeBucket" -> {
+                    createBucket(bucket);
+                    send(exchange, 200, null);
+                }
+                case "list" -> list(exchange, bucket, objects, query);
+                case "removeBatch" -> removeBatch(exchange, objects, body);
+                case "createMultipart" -> createMultipart(exchange, bucket, key);
+                case "uploadPart" -> uploadPart(exchange, bucket, key, query, body);
+                case "completeMultipart" -> completeMultipart(exchange, bucket, key, objects, query, body);
+                case "abortMultipart" -> {
+                    uploads.remove(query.get("uploadId"));
+                    send(exchange, 204, null);
+                }
+                case "copy" -> copy(exchange, bucket, key, objects);
+                case "put" -> {
+                    StoredObject object = new StoredObject(body, md5(body), userMetadata(exchange.getRequestHeaders()), contentType(exchange), Instant.now());
+                    objects.put(key, object);
+                    exchange.getResponseHeaders().set("ETag", quote(object.etag()));
+                    send(exchange, 200, null);
+                }
+                case "remove" -> {
+                    objects.remove(key);
+                    send(exchange, 204, null);
+                }
+                case "stat", "get" -> get(exchange, bucket, key, objects.get(key), call.equals("stat"));
+                default -> error(exchange, 501, "NotImplemented", "Unsupported call " + call, bucket, key);
+            }
+        } catch (InterruptedIOException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String call(HttpExchange exchange, String key, Map<String, String> query) {
+        String method = exchange.getRequestMethod();
+        return switch (method) {
+            case "HEAD" -> key.isEmpty() ? "headBucket" : "stat";
+            case "GET" -> {
+                if (query.containsKey("location")) {
+                    yield "location";
+                }
+                yield key.isEmpty() ? "list" : "get";
+            }
+            case "PUT" -> {
+                if (key.isEmpty()) {
+                    yield "makeBucket";
+                }
+                if (query.containsKey("partNumber")) {
+                    yield "uploadPart";
+                }
+                yield exchange.getRequestHeaders().containsKey("x-amz-copy-source") ? "copy" : "put";
+            }
+            case "POST" -> {
+                if (query.containsKey("delete")) {
+                    yield "removeBatch";
+                }
+                yield query.containsKey("uploads") ? "createMultipart" : "completeMultipart";
+            }
+            case "DELETE" -> query.containsKey("uploadId") ? "abortMultipart" : "remove";
+            default -> method.toLowerCase(Locale.ROOT);
+        };
+    }
+
+    private void get(HttpExchange exchange, String bucket, String key, StoredObject object, boolean headOnly) throws IOException {
+        if (object == null) {
+            error(exchange, 404, "NoSuchKey", "The specified key does not exist.", bucket, key);
+            return;
+        }
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        if (ifMatch != null && !unquote(ifMatch).equals(object.etag())) {
+            error(exchange, 412, "PreconditionFailed", "At least one of the pre-conditions you specified did not hold", bucket, key);
+            return;
+        }
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", quote(object.etag()));
+        headers.set("Last-Modified", HTTP_DATE.format(object.lastModified()));
+        headers.set("Content-Type", object.contentType());
+        headers.set("Accept-Ranges", "bytes");
+        object.metadata().forEach((name, value) -> headers.set(USER_METADATA_PREFIX + name, value));
+
+        int start = 0;
+        int end = object.content().length - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null && !headOnly) {
+            Matcher matcher = RANGE.matcher(range);
+            if (matcher.matches()) {
+                int size = object.content().length;
+                if (matcher.group(1).isEmpty()) {
+                    start = Math.max(0, size - Integer.parseInt(matcher.group(2)));
+                } else {
+                    start = Integer.parseInt(matcher.group(1));
+                    if (!matcher.group(2).isEmpty()) {
+                        end = Math.min(end, Integer.parseInt(matcher.group(2)));
+                    }
+                }
+                if (start >= size) {
+                    error(exchange, 416, "InvalidRange", "The requested range is not satisfiable", bucket, key);
+                    return;
+                }
+                status = 206;
+                headers.set("Content-Range", "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        int length = end - start + 1;
+        if (headOnly) {
+            headers.set("Content-Length", String.valueOf(object.content().length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        write(exchange.getResponseBody(), object.content(), start, length);
+    }
+
+    private void copy(HttpExchange exchange, String bucket, String key, NavigableMap<String, StoredObject> objects) throws IOException {
+        String source = URLDecoder.decode(exchange.getRequestHeaders().getFirst("x-amz-copy-source"), StandardCharsets.UTF_8);
+        source = source.startsWith("/") ? source.substring(1) : source;
+        int separator = source.indexOf('/');
+        NavigableMap<String, StoredObject> sourceObjects = buckets.get(source.substring(0, separator));
+        StoredObject sourceObject = sourceObjects == null ? null : sourceObjects.get(source.substring(separator + 1));
+        if (sourceObject == null) {
+            error(exchange, 404, "NoSuchKey", "The specified key does not exist.", bucket, source);
+            return;
+        }
+        boolean replace = "REPLACE".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("x-amz-metadata-directive"));
+        StoredObject copy = new StoredObject(
+            sourceObject.content(),
+            sourceObject.etag(),
+            replace ? userMetadata(exchange.getRequestHeaders()) : sourceObject.metadata(),
+            replace ? contentType(exchange) : sourceObject.contentType(),
+            Instant.now()
+        );
+        objects.put(key, copy);
+        xml(
+            exchange,
+            200,
+            "<CopyObjectResult><LastModified>" + ISO_DATE.format(copy.lastModified()) + "</LastModified><ETag>" + escape(quote(copy.etag())) + "</ETag></CopyObjectResult>"
+        );
+    }
+
+    private void createMultipart(HttpExchange exchange, String bucket, String key) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new Upload(bucket, key, userMetadata(exchange.getRequestHeaders()), contentType(exchange), new ConcurrentSkipListMap<>()));
+        xml(
+            exchange,
+            200,
+            "<InitiateMultipartUploadResult><Bucket>" + escape(bucket) + "</Bucket><Key>" + escape(key) + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>"
+        );
+    }
+
+    private void uploadPart(HttpExchange exchange, String bucket, String key, Map<String, String> query, byte[] body) throws IOException {
+        Upload upload = uploads.get(query.get("uploadId"));
+        if (upload == null) {
+            error(exchange, 404, "NoSuchUpload", "The specified multipart upload does not exist.", bucket, key);
+            return;
+        }
+        upload.parts().put(Integer.parseInt(query.get("partNumber")), body);
+        exchange.getResponseHeaders().set("ETag", quote(md5(body)));
+        send(exchange, 200, null);
+    }
+
+    private void completeMultipart(
+        HttpExchange exchange,
+        String bucket,
+        String key,
+        NavigableMap<String, StoredObject> objects,
+        Map<String, String> query,
+        byte[] body
+    ) throws IOException {
+        Upload upload = uploads.remove(query.get("uploadId"));
+        if (upload == null) {
+            error(exchange, 404, "NoSuchUpload", "The specified multipart upload does not exist.", bucket, key);
+            return;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ByteArrayOutputStream digests = new ByteArrayOutputStream();
+        Matcher parts = PART.matcher(new String(body, StandardCharsets.UTF_8));
+        int count = 0;
+        while (parts.find()) {
+            byte[] part = upload.parts().get(Integer.parseInt(parts.group(1)));
+            if (part == null) {
+                error(exchange, 400, "InvalidPart", "One or more of the specified parts could not be found.", bucket, key);
+                return;
+            }
+            content.writeBytes(part);
+            digests.writeBytes(HexFormat.of().parseHex(md5(part)));
+            count++;
+        }
+        String etag = md5(digests.toByteArray()) + "-" + count;
+        objects.put(key, new StoredObject(content.toByteArray(), etag, upload.metadata(), upload.contentType(), Instant.now()));
+        xml(
+            exchange,
+            200,
+            "<CompleteMultipartUploadResult><Location>/" + escape(bucket + "/" + key) + "</Location><Bucket>" + escape(bucket) + "</Bucket><Key>" + escape(key) +
+                "</Key><ETag>" + escape(quote(etag)) + "</ETag></CompleteMultipartUploadResult>"
+        );
+    }
+
+    private void removeBatch(HttpExchange exchange, NavigableMap<String, StoredObject> objects, byte[] body) throws IOException {
+        String request = new String(body, StandardCharsets.UTF_8);
+        boolean quiet = request.contains("<Quiet>true</Quiet>");
+        StringBuilder result = new StringBuilder("<DeleteResult>");
+        Matcher keys = KEY.matcher(request);
+        while (keys.find()) {
+            String key = unescape(keys.group(1));
+            objects.remove(key);
+            if (!quiet) {
+                result.append("<Deleted><Key>").append(escape(key)).append("</Key></Deleted>");
+            }
+        }
+        xml(exchange, 200, result.append("</DeleteResult>").toString());
+    }
+
+    private void list(HttpExchange exchange, String bucket, NavigableMap<String, StoredObject> objects, Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.get("delimiter");
+        int maxKeys = Integer.parseInt(query.getOrDefault("max-keys", "1000"));
+        boolean withMetadata = "true".equals(query.get("metadata"));
+        String marker = query.containsKey("continuation-token") ? query.get("continuation-token") : query.get("start-after");
+
+        StringBuilder contents = new StringBuilder();
+        List<String> commonPrefixes = new ArrayList<>();
+        String last = null;
+        int count = 0;
+        boolean truncated = false;
+        NavigableMap<String, StoredObject> candidates = marker == null || marker.isEmpty() ? objects : objects.tailMap(marker, false);
+        for (Map.Entry<String, StoredObject> entry : candidates.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                if (key.compareTo(prefix) > 0) {
+                    break;
+                }
+                continue;
+            }
+            String commonPrefix = null;
+            if (delimiter != null && !delimiter.isEmpty()) {
+                int index = key.indexOf(delimiter, prefix.length());
+                if (index >= 0) {
+                    commonPrefix = key.substring(0, index + delimiter.length());
+                }
+            }
+            // keys below a common prefix already returned, possibly in a previous page
+            if (commonPrefix != null && (commonPrefix.equals(last) || (marker != null && marker.equals(commonPrefix)))) {
+                continue;
+            }
+            if (count == maxKeys) {
+                truncated = true;
+                break;
+            }
+            if (commonPrefix != null) {
+                commonPrefixes.add(commonPrefix);
+                last = commonPrefix;
+            } else {
+                StoredObject object = entry.getValue();
+                contents.append("<Contents><Key>").append(escape(key)).append("</Key>")
+                    .append("<LastModified>").append(ISO_DATE.format(object.lastModified())).append("</LastModified>")
+                    .append("<ETag>").append(escape(quote(object.etag()))).append("</ETag>")
+                    .append("<Size>").append(object.content().length).append("</Size>")
+                    .append("<StorageClass>STANDARD</StorageClass>");
+                if (withMetadata) {
+                    contents.append("<UserMetadata>");
+                    object.metadata().forEach((name, value) -> contents.append("<X-Amz-Meta-").append(name).append(">")
+                        .append(escape(value))
+                        .append("</X-Amz-Meta-").append(name).append(">"));
+                    contents.append("</UserMetadata>");
+                }
+                contents.append("</Contents>");
+                last = key;
+            }
+            count++;
+        }
+
+        StringBuilder result = new StringBuilder("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">")
+            .append("<Name>").append(escape(bucket)).append("</Name>")
+            .append("<Prefix>").append(escape(prefix)).append("</Prefix>")
+            .append("<KeyCount>").append(count).append("</KeyCount>")
+            .append("<MaxKeys>").append(maxKeys).append("</MaxKeys>");
+        if (delimiter != null) {
+            result.append("<Delimiter>").append(escape(delimiter)).append("</Delimiter>");
+        }
+        result.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (truncated) {
+            result.append("<NextContinuationToken>").append(escape(last)).append("</NextContinuationToken>");
+        }
+        result.append(contents);
+        commonPrefixes.forEach(commonPrefix -> result.append("<CommonPrefixes><Prefix>").append(escape(commonPrefix)).append("</Prefix></CommonPrefixes>"));
+        xml(exchange, 200, result.append("</ListBucketResult>").toString());
+    }
+
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (contentSha256 != null && contentSha256.startsWith("STREAMING-")) {
+            body = decodeChunks(body);
+        }
+        throttle(body.length);
+        return body;
+    }
+
+    /**
+     * Decode a body sent with the {@code aws-chunked} content encoding.
+     */
+    private static byte[] decodeChunks(byte[] body) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = indexOf(body, position);
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(body, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOf(byte[] body, int from) {
+        for (int i = from; i < body.length - 1; i++) {
+            if (body[i] == '\r' && body[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return body.length;
+    }
+
+    private void write(OutputStream output, byte[] content, int offset, int length) throws IOException {
+        int chunk = 64 * 1024;
+        for (int written = 0; written < length; written += chunk) {
+            int size = Math.min(chunk, length - written);
+            output.write(content, offset + written, size);
+            throttle(size);
+        }
+    }
+
+    private void throttle(long bytes) throws InterruptedIOException {
+        long bytesPerSecond = bandwidth;
+        if (bytesPerSecond > 0 && bytes > 0) {
+            sleep(bytes * 1_000_000_000L / bytesPerSecond);
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String code, String message, String bucket, String key) throws IOException {
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            send(exchange, status, null);
+            return;
+        }
+        xml(
+            exchange,
+            status,
+            "<Error><Code>" + code + "</Code><Message>" + escape(message) + "</Message><BucketName>" + escape(bucket) + "</BucketName><Key>" + escape(key) +
+                "</Key><Resource>/" + escape(bucket + "/" + key) + "</Resource><RequestId>" + UUID.randomUUID() + "</RequestId><HostId></HostId></Error>"
+        );
+    }
+
+    private static void xml(HttpExchange exchange, int status, String xml) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        send(exchange, status, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("x-amz-request-id", UUID.randomUUID().toString());
+        if (body == null || body.length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static Map<String, String> userMetadata(Headers headers) {
+        Map<String, String> metadata = new LinkedHashMap<>();
+        headers.forEach((name, values) ->
+        {
+            if (name.toLowerCase(Locale.ROOT).startsWith(USER_METADATA_PREFIX) && !values.isEmpty()) {
+                metadata.put(name.substring(USER_METADATA_PREFIX.length()).toLowerCase(Locale.ROOT), values.getFirst());
+            }
+        });
+        return metadata;
+    }
+
+    private static String contentType(HttpExchange exchange) {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        return contentType == null ? "application/octet-stream" : contentType;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String md5(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String quote(String etag) {
+        return "\"" + etag + "\"";
+    }
+
+    private static String unquote(String etag) {
+        return etag.replace("\"", "");
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String unescape(String value) {
+        return value.replace("&quot;", "\"").replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+
+    private record StoredObject(byte[] content, String etag, Map<String, String> metadata, String contentType, Instant lastModified) {
+    }
+
+    private record Upload(String bucket, String key, Map<String, String> metadata, String contentType, NavigableMap<Integer, byte[]> parts) {
+    }
+}
@@ -0,0 +1,44 @@
+package io.kestra.storage.minio;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class MetadataUtilsTest {
+
+    @Test
+    void keysShouldRoundTrip() {
+        for (String key : List.of("someKey", "key", "someLongerKeyName", "version2Key")) {
+            Map<String, String> stored = MetadataUtils.toStoredMetadata(Map.of(key, "value"));
+            assertThat(MetadataUtils.toRetrievedMetadata(stored), is(Map.of(key, "value")));
+        }
+    }
+
+    @Test
+    void keysShouldBeTranslatedLikeBefore() {
+        assertThat(MetadataUtils.toStoredKey("someKey"), is("some_key"));
+        assertThat(MetadataUtils.toStoredKey("SomeKEY"), is("_some_k_e_y"));
+        assertThat(MetadataUtils.toStoredKey("plain"), is("plain"));
+        assertThat(MetadataUtils.toStoredKey("Ünicode"), is("ünicode"));
+
+        assertThat(MetadataUtils.toRetrievedKey("some_key"), is("someKey"));
+        assertThat(MetadataUtils.toRetrievedKey("Some_Key"), is("someKey"));
+        assertThat(MetadataUtils.toRetrievedKey("a__b_"), is("a_B_"));
+        assertThat(MetadataUtils.toRetrievedKey("key_2"), is("key_2"));
+        assertThat(MetadataUtils.toRetrievedKey("plain"), is("plain"));
+    }
+
+    @Test
+    void prefixedHeadersShouldBeFiltered() {
+        Map<String, String> metadata = MetadataUtils.toRetrievedListedMetadata(Map.of(
+            "X-Amz-Meta-Some_key", "value",
+            "content-type", "text/plain"
+        ));
+
+        assertThat(metadata, is(Map.of("someKey", "value")));
+    }
+}
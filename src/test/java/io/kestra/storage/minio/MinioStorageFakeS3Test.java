@@ -0,0 +1,528 @@
+package io.kestra.storage.minio;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.kestra.core.storages.FileAttributes;
+import io.kestra.core.storages.StorageObject;
+import io.kestra.core.utils.IdUtils;
+import io.kestra.storage.minio.domains.DiskCacheConfiguration;
+import io.kestra.storage.minio.domains.RetryConfiguration;
+import io.kestra.storage.minio.internal.BytesSize;
+import io.kestra.storage.minio.internal.MinioMetrics;
+import io.kestra.storage.minio.internal.MultipartUploader;
+import io.kestra.storage.minio.internal.PartBufferPool;
+import io.kestra.storage.minio.internal.StreamLength;
+import io.kestra.storage.minio.internal.UploadMemoryBudget;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.MinioAsyncClient;
+import io.minio.errors.MinioException;
+
+import static io.kestra.core.tenant.TenantService.MAIN_TENANT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MinioStorageFakeS3Test {
+    private static final String BUCKET = "fake-bucket";
+
+    private FakeS3Server server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = FakeS3Server.start().createBucket(BUCKET);
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    @Test
+    void shouldRoundTripThroughTheFakeServer() throws Exception {
+        MinioStorage storage = storageBuilder().build();
+        storage.init();
+        try {
+            String prefix = "/" + IdUtils.create();
+            byte[] small = "Hello World".getBytes();
+            byte[] large = new byte[6 * 1024 * 1024];
+            new Random(42).nextBytes(large);
+
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/dir/small.txt"), new StorageObject(Map.of("someKey", "someValue"), new ByteArrayInputStream(small)));
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/large.bin"), new ByteArrayInputStream(large));
+            assertThat(server.requestCount("uploadPart"), greaterThanOrEqualTo(2));
+
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, URI.create(prefix + "/large.bin"))) {
+                assertThat(inputStream.readAllBytes(), is(large));
+            }
+            StorageObject withMetadata = storage.getWithMetadata(MAIN_TENANT, null, URI.create(prefix + "/dir/small.txt"));
+            try (InputStream inputStream = withMetadata.inputStream()) {
+                assertThat(inputStream.readAllBytes(), is(small));
+            }
+            assertThat(withMetadata.metadata().get("someKey"), is("someValue"));
+
+            List<String> names = storage.list(MAIN_TENANT, null, URI.create(prefix)).stream().map(FileAttributes::getFileName).toList();
+            assertThat(names, containsInAnyOrder("dir", "large.bin"));
+
+            storage.move(MAIN_TENANT, null, URI.create(prefix + "/dir"), URI.create(prefix + "/moved"));
+            assertThat(storage.exists(MAIN_TENANT, null, URI.create(prefix + "/moved/small.txt")), is(true));
+            assertThat(storage.exists(MAIN_TENANT, null, URI.create(prefix + "/dir/small.txt")), is(false));
+
+            storage.deleteByPrefix(MAIN_TENANT, null, URI.create(prefix + "/"));
+            assertThat(storage.exists(MAIN_TENANT, null, URI.create(prefix + "/large.bin")), is(false));
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void sequentialMultipartUploadsShouldUseTheUploader() throws Exception {
+        MinioStorage storage = storageBuilder()
+            .partSize(new BytesSize(1024 * 1024 * 5))
+            .uploadMemoryBudget(new BytesSize(1024 * 1024 * 10))
+            .build();
+        storage.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/large.bin");
+            byte[] content = new byte[1024 * 1024 * 12];
+            new Random(42).nextBytes(content);
+
+            server.resetRequestCounts();
+            storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream(content));
+            assertThat(server.requestCount("uploadPart"), is(3));
+
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, uri)) {
+                assertThat(inputStream.readAllBytes(), is(content));
+            }
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void failedMultipartUploadsShouldBeCountedAsS3Errors() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        MinioStorage storage = storageBuilder()
+            .partSize(new BytesSize(1024 * 1024 * 5))
+            .retry(RetryConfiguration.builder().maxAttempts(1).build())
+            .build();
+        storage.init();
+        try {
+            server.slowDownCalls("uploadPart");
+            URI uri = URI.create("/" + IdUtils.create() + "/large.bin");
+            assertThrows(IOException.class, () -> storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream(new byte[1024 * 1024 * 12])));
+
+            double s3Errors = registry.find(MinioMetrics.PREFIX + "s3.errors").counters().stream().mapToDouble(Counter::count).sum();
+            assertThat(s3Errors, greaterThanOrEqualTo(1.0));
+            assertThat(server.requestCount("abortMultipart"), is(1));
+        } finally {
+            storage.close();
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void putAsyncShouldUploadUnknownLengthsInParts() throws Exception {
+        MinioStorage storage = storageBuilder()
+            .uploadParallelism(2)
+            .partSize(new BytesSize(1024 * 1024 * 5))
+            .build();
+        storage.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/large.bin");
+            byte[] content = new byte[1024 * 1024 * 12];
+            new Random(42).nextBytes(content);
+            // neither a byte array nor a file stream, its length is unknown
+            InputStream data = new BufferedInputStream(new ByteArrayInputStream(content));
+
+            server.resetRequestCounts();
+            storage.putAsync(MAIN_TENANT, null, uri, new StorageObject(null, data)).get();
+            assertThat(server.requestCount("uploadPart"), is(3));
+
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, uri)) {
+                assertThat(inputStream.readAllBytes(), is(content));
+            }
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void fastDeleteShouldTrustTheKeyType() throws Exception {
+        MinioStorage storage = storageBuilder().fastDelete(true).build();
+        storage.init();
+        try {
+            String prefix = "/" + IdUtils.create();
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/dir/file.txt"), new ByteArrayInputStream("Hello".getBytes()));
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/file.txt"), new ByteArrayInputStream("Hello".getBytes()));
+
+            server.resetRequestCounts();
+            assertThat(storage.delete(MAIN_TENANT, null, URI.create(prefix + "/file.txt")), is(true));
+            assertThat(server.requestCount(), is(1));
+            assertThat(storage.exists(MAIN_TENANT, null, URI.create(prefix + "/file.txt")), is(false));
+
+            // S3 acknowledges the deletion of missing keys
+            assertThat(storage.delete(MAIN_TENANT, null, URI.create(prefix + "/missing.txt")), is(true));
+
+            assertThat(storage.delete(MAIN_TENANT, null, URI.create(prefix + "/dir/")), is(true));
+            assertThat(storage.exists(MAIN_TENANT, null, URI.create(prefix + "/dir/file.txt")), is(false));
+            assertThat(storage.deleteAsync(MAIN_TENANT, null, URI.create(prefix + "/missing.txt")).get(), is(true));
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void cachedAttributesShouldSaveRequests() throws Exception {
+        MinioStorage storage = storageBuilder().attributesCacheTtl(Duration.ofMinutes(1)).build();
+        storage.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/file.txt");
+            storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream("Hello World".getBytes()));
+
+            server.resetRequestCounts();
+            for (int i = 0; i < 5; i++) {
+                assertThat(storage.getAttributes(MAIN_TENANT, null, uri).getSize(), is(11L));
+            }
+            assertThat(server.requestCount("stat"), is(1));
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void evictedCachedFileShouldBeDownloadedAgain(@TempDir Path cacheDirectory) throws Exception {
+        MinioStorage storage = storageBuilder()
+            .diskCache(DiskCacheConfiguration.builder().path(cacheDirectory.toString()).ttl(Duration.ofMinutes(1)).build())
+            .build();
+        storage.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/file.txt");
+            storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream("Hello World".getBytes()));
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, uri)) {
+                assertThat(new String(inputStream.readAllBytes()), is("Hello World"));
+            }
+
+            // the cached file disappears between the lookup of its entry and its opening, as with a concurrent eviction
+            server.resetRequestCounts();
+            deleteCachedFiles(cacheDirectory);
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, uri)) {
+                assertThat(new String(inputStream.readAllBytes()), is("Hello World"));
+            }
+            deleteCachedFiles(cacheDirectory);
+            try (InputStream inputStream = storage.getAsync(MAIN_TENANT, null, uri).get()) {
+                assertThat(new String(inputStream.readAllBytes()), is("Hello World"));
+            }
+            assertThat(server.requestCount("get"), is(2));
+
+            // downloaded again, the file is cached again
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, uri)) {
+                assertThat(new String(inputStream.readAllBytes()), is("Hello World"));
+            }
+            assertThat(server.requestCount("get"), is(2));
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void writesShouldOnlyEvictTheirOwnCachedFile(@TempDir Path cacheDirectory) throws Exception {
+        MinioStorage storage = storageBuilder()
+            .diskCache(DiskCacheConfiguration.builder().path(cacheDirectory.toString()).ttl(Duration.ofMinutes(1)).build())
+            .build();
+        storage.init();
+        try {
+            String prefix = "/" + IdUtils.create();
+            URI cached = URI.create(prefix + "/b.txt");
+            storage.put(MAIN_TENANT, null, cached, new ByteArrayInputStream("Hello World".getBytes()));
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, cached)) {
+                assertThat(new String(inputStream.readAllBytes()), is("Hello World"));
+            }
+
+            // keys sharing the beginning of the cached one
+            server.resetRequestCounts();
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/b"), new ByteArrayInputStream("other".getBytes()));
+            storage.delete(MAIN_TENANT, null, URI.create(prefix + "/b"));
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, cached)) {
+                assertThat(new String(inputStream.readAllBytes()), is("Hello World"));
+            }
+            assertThat(server.requestCount("get"), is(0));
+
+            storage.deleteByPrefix(MAIN_TENANT, null, URI.create(prefix + "/"));
+            assertThrows(FileNotFoundException.class, () -> storage.get(MAIN_TENANT, null, cached));
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void throttledRequestsShouldBeRetried() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        MinioStorage storage = storageBuilder()
+            .retry(RetryConfiguration.builder().maxAttempts(3).initialDelay(Duration.ofMillis(1)).build())
+            .build();
+        storage.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/file.txt");
+            storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream("Hello World".getBytes()));
+
+            server.resetRequestCounts();
+            server.slowDownNext(2);
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, uri)) {
+                assertThat(new String(inputStream.readAllBytes()), is("Hello World"));
+            }
+            assertThat(server.requestCount("get"), is(3));
+            assertThat(registry.get("kestra.storage.minio.s3.retries").tag("call", "get").tag("reason", "503").counter().count(), is(2.0));
+
+            server.slowDownNext(3);
+            assertThrows(IOException.class, () -> storage.get(MAIN_TENANT, null, uri).close());
+            assertThat(registry.get("kestra.storage.minio.s3.retries.exhausted").tag("call", "get").counter().count(), is(1.0));
+        } finally {
+            storage.close();
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void invalidRetryConfigurationShouldBeRejected() {
+        for (RetryConfiguration retry : List.of(
+            RetryConfiguration.builder().maxAttempts(0).build(),
+            RetryConfiguration.builder().initialDelay(Duration.ofMillis(-1)).build(),
+            RetryConfiguration.builder().initialDelay(Duration.ofSeconds(10)).maxDelay(Duration.ofSeconds(1)).build(),
+            RetryConfiguration.builder().jitter(1.5).build(),
+            RetryConfiguration.builder().budget(-1).build()
+        )) {
+            MinioStorage storage = storageBuilder().retry(retry).build();
+            assertThrows(IllegalArgumentException.class, storage::init);
+            storage.close();
+        }
+    }
+
+    @Test
+    void metersShouldBelongToTheirInstance() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        MinioStorage first = storageBuilder().retry(RetryConfiguration.builder().budget(1).build()).build();
+        MinioStorage second = storageBuilder().retry(RetryConfiguration.builder().budget(2).build()).build();
+        first.init();
+        second.init();
+        try {
+            List<Double> tokens = registry.find(MinioMetrics.PREFIX + "retry.budget.tokens").tag("bucket", BUCKET).gauges().stream()
+                .map(Gauge::value)
+                .toList();
+            assertThat(tokens, containsInAnyOrder(1.0, 2.0));
+
+            assertThat(first.exists(MAIN_TENANT, null, URI.create("/" + IdUtils.create() + "/missing.txt")), is(false));
+            assertThat(registry.find(MinioMetrics.PREFIX + "operation.errors").tag("operation", "exists").counters(), empty());
+            assertThat(registry.get(MinioMetrics.PREFIX + "exists").tag("bucket", BUCKET).tag("result", "missing").counter().count(), is(1.0));
+        } finally {
+            first.close();
+            second.close();
+            Metrics.removeRegistry(registry);
+        }
+        assertThat(Metrics.globalRegistry.find(MinioMetrics.PREFIX + "retry.budget.tokens").tag("bucket", BUCKET).gauges(), empty());
+    }
+
+    @Test
+    void downloadedBytesShouldOnlyCountWhatWasRead() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        MinioStorage storage = storageBuilder().build();
+        storage.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/large.bin");
+            storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream(new byte[1024 * 1024 * 4]));
+
+            double before = registry.get(MinioMetrics.PREFIX + "downloaded").counter().count();
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, uri)) {
+                assertThat(inputStream.readNBytes(10).length, is(10));
+            }
+            assertThat(registry.get(MinioMetrics.PREFIX + "downloaded").counter().count() - before < 1024 * 1024, is(true));
+        } finally {
+            storage.close();
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void requestsOfOtherThreadsShouldBeAttributedToTheirOperation() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        MinioStorage storage = storageBuilder().build();
+        storage.init();
+        try {
+            String prefix = "/" + IdUtils.create();
+            for (int i = 0; i < 20; i++) {
+                storage.put(MAIN_TENANT, null, URI.create(prefix + "/dir/file" + i + ".txt"), new ByteArrayInputStream("Hello".getBytes()));
+            }
+
+            double unknown = operationRequests(registry, "unknown");
+            server.resetRequestCounts();
+            storage.move(MAIN_TENANT, null, URI.create(prefix + "/dir"), URI.create(prefix + "/moved"));
+            assertThat(operationRequests(registry, "move"), is((double) server.requestCount()));
+
+            server.resetRequestCounts();
+            storage.deleteByPrefix(MAIN_TENANT, null, URI.create(prefix + "/"));
+            assertThat(operationRequests(registry, "deleteByPrefix"), is((double) server.requestCount()));
+            assertThat(operationRequests(registry, "unknown"), is(unknown));
+        } finally {
+            storage.close();
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void emptyRetryBudgetShouldStopRetries() throws Exception {
+        MinioStorage storage = storageBuilder()
+            .retry(RetryConfiguration.builder().maxAttempts(5).initialDelay(Duration.ofMillis(1)).budget(2).build())
+            .build();
+        storage.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/file.txt");
+            storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream("Hello World".getBytes()));
+
+            server.resetRequestCounts();
+            server.slowDownProbability(1.0);
+            assertThrows(IOException.class, () -> storage.get(MAIN_TENANT, null, uri).close());
+            assertThrows(IOException.class, () -> storage.get(MAIN_TENANT, null, uri).close());
+            // two retries for the whole storage, then a single attempt per request
+            assertThat(server.requestCount("get"), is(4));
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void parallelDownloadsShouldOnlySplitLargeObjects() throws Exception {
+        MinioStorage storage = storageBuilder()
+            .downloadParallelism(3)
+            .downloadPartSize(new BytesSize(1024 * 1024))
+            .parallelDownloadThreshold(new BytesSize(1024 * 1024 * 4))
+            .build();
+        storage.init();
+        try {
+            String prefix = "/" + IdUtils.create();
+            byte[] small = new byte[1024 * 512];
+            byte[] medium = new byte[1024 * 1024 * 2];
+            byte[] large = new byte[1024 * 1024 * 5 + 42];
+            new Random(42).nextBytes(small);
+            new Random(42).nextBytes(medium);
+            new Random(42).nextBytes(large);
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/empty.bin"), new ByteArrayInputStream(new byte[0]));
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/small.bin"), new ByteArrayInputStream(small));
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/medium.bin"), new ByteArrayInputStream(medium));
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/large.bin"), new ByteArrayInputStream(large));
+
+            server.resetRequestCounts();
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, URI.create(prefix + "/small.bin"))) {
+                assertThat(inputStream.readAllBytes(), is(small));
+            }
+            // a single range request for an object fitting in the first chunk
+            assertThat(server.requestCount("get"), is(1));
+
+            server.resetRequestCounts();
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, URI.create(prefix + "/medium.bin"))) {
+                assertThat(inputStream.readAllBytes(), is(medium));
+            }
+            // the first chunk, then the rest of the object below the threshold
+            assertThat(server.requestCount("get"), is(2));
+
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, URI.create(prefix + "/empty.bin"))) {
+                assertThat(inputStream.readAllBytes().length, is(0));
+            }
+
+            server.resetRequestCounts();
+            try (InputStream inputStream = storage.get(MAIN_TENANT, null, URI.create(prefix + "/large.bin"))) {
+                assertThat(inputStream.readAllBytes(), is(large));
+            }
+            // a range request per chunk, none of them aborted
+            assertThat(server.requestCount("get"), is(6));
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    void failedPartShouldStopTheUploadAndReleaseItsMemory() throws Exception {
+        server.slowDownCalls("uploadPart");
+        UploadMemoryBudget budget = new UploadMemoryBudget(4 * 1024 * 1024);
+        PartBufferPool pool = new PartBufferPool(1024 * 1024, 0, budget);
+        MinioAsyncClient client = MinioAsyncClient.builder()
+            .endpoint("http://" + server.endpoint() + ":" + server.port())
+            .credentials("accessKey", "secretKey")
+            .region("us-east-1")
+            .build();
+        long size = 256L * 1024 * 1024;
+        AtomicLong read = new AtomicLong();
+        InputStream data = new InputStream() {
+            @Override
+            public int read() {
+                return read.getAndIncrement() < size ? 0 : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                int length = (int) Math.min(len, size - read.get());
+                if (length <= 0) {
+                    return -1;
+                }
+                read.addAndGet(length);
+                return length;
+            }
+        };
+
+        assertThrows(MinioException.class, () -> new MultipartUploader(client, BUCKET, 1024 * 1024, 2, pool).upload("failed.bin", data, StreamLength.UNKNOWN, Map.of()));
+
+        assertThat(read.get() < size, is(true));
+        assertThat(budget.reservedBytes(), is(0L));
+        assertThat(server.requestCount("abortMultipart"), is(1));
+    }
+
+    private static double operationRequests(SimpleMeterRegistry registry, String operation) {
+        return registry.find(MinioMetrics.PREFIX + "operation.requests").tag("operation", operation).counters().stream()
+            .mapToDouble(Counter::count)
+            .sum();
+    }
+
+    private static void deleteCachedFiles(Path cacheDirectory) throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            files.filter(Files::isRegularFile).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private MinioStorage.MinioStorageBuilder storageBuilder() {
+        return MinioStorage.builder()
+            .endpoint(server.endpoint())
+            .port(server.port())
+            .accessKey("accessKey")
+            .secretKey("secretKey")
+            .region("us-east-1")
+            .bucket(BUCKET);
+    }
+}
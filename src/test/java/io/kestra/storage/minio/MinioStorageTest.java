@@ -3,15 +3,33 @@ package io.kestra.storage.minio;
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import io.kestra.core.storage.StorageTestSuite;
+import io.kestra.core.storages.FileAttributes;
 import io.kestra.core.storages.StorageInterface;
+import io.kestra.core.storages.StorageObject;
 import io.kestra.core.utils.IdUtils;
+import io.kestra.storage.minio.domains.DiskCacheConfiguration;
+import io.kestra.storage.minio.internal.BytesSize;
+import io.kestra.storage.minio.internal.RangeReadChannel;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.minio.BucketExistsArgs;
 import io.minio.MakeBucketArgs;
 import jakarta.inject.Inject;
@@ -20,7 +38,10 @@ import static io.kestra.core.tenant.TenantService.MAIN_TENANT;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MinioStorageTest extends StorageTestSuite {
@@ -86,4 +107,292 @@ class MinioStorageTest extends StorageTestSuite {
         result = storage.allByPrefix(MAIN_TENANT, "some_namespace", URI.create("/some_namespace/folder"), true);
         assertThat(result, containsInAnyOrder(URI.create("kestra:///some_namespace/folder/sub/")));
     }
+
+    @Test
+    void putIntoKnownDirectoryShouldOnlyUploadTheObject() throws Exception {
+        String prefix = "/" + IdUtils.create() + "/flow/execution/";
+        storage.put(MAIN_TENANT, null, URI.create(prefix + "first.txt"), new ByteArrayInputStream("first".getBytes()));
+
+        ByteArrayOutputStream traceStream = new ByteArrayOutputStream();
+        ((MinioStorage) storage).minioClient().traceOn(traceStream);
+        try {
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "second.txt"), new ByteArrayInputStream("second".getBytes()));
+        } finally {
+            ((MinioStorage) storage).minioClient().traceOff();
+        }
+
+        assertThat(traceStream.toString().split("START-HTTP", -1).length - 1, is(1));
+        assertThat(new String(storage.get(MAIN_TENANT, null, URI.create(prefix + "second.txt")).readAllBytes()), is("second"));
+    }
+
+    @Test
+    void implicitDirectoriesShouldBeDerivedFromObjectKeys() throws Exception {
+        MinioStorage implicit = storageBuilder().implicitDirectories(true).build();
+        implicit.init();
+        try {
+            String root = "/" + IdUtils.create();
+            implicit.put(MAIN_TENANT, null, URI.create(root + "/folder/sub/file.txt"), new ByteArrayInputStream("content".getBytes()));
+
+            assertThat(implicit.exists(MAIN_TENANT, null, URI.create(root + "/folder/")), is(true));
+            assertThat(implicit.exists(MAIN_TENANT, null, URI.create(root + "/missing/")), is(false));
+            assertThat(implicit.getAttributes(MAIN_TENANT, null, URI.create(root + "/folder")).getType(), is(FileAttributes.FileType.Directory));
+            assertThat(implicit.list(MAIN_TENANT, null, URI.create(root + "/folder")).getFirst().getType(), is(FileAttributes.FileType.Directory));
+            assertThat(
+                implicit.allByPrefix(MAIN_TENANT, null, URI.create(root + "/"), true),
+                hasItems(URI.create("kestra://" + root + "/folder/"), URI.create("kestra://" + root + "/folder/sub/"), URI.create("kestra://" + root + "/folder/sub/file.txt"))
+            );
+
+            implicit.createDirectory(MAIN_TENANT, null, URI.create(root + "/empty"));
+            assertThat(implicit.getAttributes(MAIN_TENANT, null, URI.create(root + "/empty")).getType(), is(FileAttributes.FileType.Directory));
+        } finally {
+            implicit.close();
+        }
+    }
+
+    @Test
+    void listShouldReturnSizeAndMetadataOfEachFile() throws Exception {
+        String prefix = "/" + IdUtils.create();
+        for (int i = 0; i < 3; i++) {
+            storage.put(
+                MAIN_TENANT,
+                null,
+                URI.create(prefix + "/file" + i + ".txt"),
+                new StorageObject(Map.of("someKey", "value" + i), new ByteArrayInputStream(("content" + i).getBytes()))
+            );
+        }
+
+        var list = storage.list(MAIN_TENANT, null, URI.create(prefix));
+
+        assertThat(list.size(), is(3));
+        for (FileAttributes attributes : list) {
+            String index = attributes.getFileName().substring("file".length(), "file".length() + 1);
+            assertThat(attributes.getSize(), is(("content" + index).length() * 1L));
+            assertThat(attributes.getMetadata().get("someKey"), is("value" + index));
+        }
+    }
+
+    @Test
+    void listShouldBePaginatedWithContinuationTokens() throws Exception {
+        String prefix = "/" + IdUtils.create();
+        for (int i = 0; i < 5; i++) {
+            storage.put(MAIN_TENANT, null, URI.create(prefix + "/file" + i + ".txt"), new ByteArrayInputStream(new byte[0]));
+        }
+        storage.createDirectory(MAIN_TENANT, null, URI.create(prefix + "/folder"));
+
+        MinioStorage minioStorage = (MinioStorage) storage;
+        List<String> names = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            ListPage<FileAttributes> page = minioStorage.list(MAIN_TENANT, null, URI.create(prefix), 2, token);
+            page.items().forEach(attributes -> names.add(attributes.getFileName()));
+            token = page.continuationToken();
+            pages++;
+        } while (token != null);
+
+        assertThat(names, containsInAnyOrder("file0.txt", "file1.txt", "file2.txt", "file3.txt", "file4.txt", "folder"));
+        // the last page is known as such, no empty page is fetched
+        assertThat(pages, is(3));
+        assertThrows(IllegalArgumentException.class, () -> minioStorage.list(MAIN_TENANT, null, URI.create(prefix), 2, "not a token"));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> minioStorage.list(MAIN_TENANT, null, URI.create(prefix), 2, MinioStorage.toContinuationToken("", "../other/file.txt"))
+        );
+        assertThat(minioStorage.streamByPrefix(MAIN_TENANT, null, URI.create(prefix), false).limit(2).count(), is(2L));
+    }
+
+    @Test
+    void putShouldUploadPartsConcurrently() throws Exception {
+        MinioStorage parallel = storageBuilder()
+            .partSize(new BytesSize(1024 * 1024 * 5))
+            .uploadParallelism(3)
+            .build();
+        parallel.init();
+        try {
+            byte[] content = new byte[1024 * 1024 * 12 + 42];
+            new Random(42).nextBytes(content);
+            URI uri = URI.create("/" + IdUtils.create() + "/large.bin");
+
+            parallel.put(MAIN_TENANT, null, uri, new StorageObject(Map.of("someKey", "value"), new ByteArrayInputStream(content)));
+
+            StorageObject stored = parallel.getWithMetadata(MAIN_TENANT, null, uri);
+            assertThat(Arrays.equals(stored.inputStream().readAllBytes(), content), is(true));
+            assertThat(stored.metadata().get("someKey"), is("value"));
+        } finally {
+            parallel.close();
+        }
+    }
+
+    @Test
+    void getShouldDownloadRangesConcurrently() throws Exception {
+        MinioStorage parallel = storageBuilder()
+            .downloadParallelism(3)
+            .downloadPartSize(new BytesSize(1024 * 1024))
+            .parallelDownloadThreshold(new BytesSize(1024 * 1024 * 2))
+            .build();
+        parallel.init();
+        try {
+            byte[] content = new byte[1024 * 1024 * 5 + 42];
+            new Random(42).nextBytes(content);
+            URI large = URI.create("/" + IdUtils.create() + "/large.bin");
+            URI empty = URI.create("/" + IdUtils.create() + "/empty.bin");
+            parallel.put(MAIN_TENANT, null, large, new ByteArrayInputStream(content));
+            parallel.put(MAIN_TENANT, null, empty, new ByteArrayInputStream(new byte[0]));
+
+            try (InputStream inputStream = parallel.get(MAIN_TENANT, null, large)) {
+                assertThat(Arrays.equals(inputStream.readAllBytes(), content), is(true));
+            }
+            try (InputStream inputStream = parallel.get(MAIN_TENANT, null, empty)) {
+                assertThat(inputStream.readAllBytes().length, is(0));
+            }
+        } finally {
+            parallel.close();
+        }
+    }
+
+    @Test
+    void seekableShouldOnlyFetchTheReadBlocks() throws Exception {
+        byte[] content = new byte[1024 * 1024 * 3];
+        new Random(42).nextBytes(content);
+        URI uri = URI.create("/" + IdUtils.create() + "/file.parquet");
+        storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream(content));
+
+        try (SeekableByteChannel channel = ((MinioStorage) storage).getSeekable(MAIN_TENANT, null, uri)) {
+            assertThat(channel.size(), is((long) content.length));
+
+            ByteBuffer footer = ByteBuffer.allocate(8);
+            channel.position(content.length - 8L);
+            channel.read(footer);
+
+            assertThat(Arrays.equals(footer.array(), Arrays.copyOfRange(content, content.length - 8, content.length)), is(true));
+            assertThat(((RangeReadChannel) channel).fetchedBytes() < content.length, is(true));
+        }
+    }
+
+    @Test
+    void diskCacheShouldServeUpToDateContent() throws Exception {
+        MinioStorage cached = storageBuilder()
+            .diskCache(DiskCacheConfiguration.builder().build())
+            .build();
+        cached.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/cached.txt");
+            storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream("first".getBytes()));
+
+            try (InputStream inputStream = cached.get(MAIN_TENANT, null, uri)) {
+                assertThat(new String(inputStream.readAllBytes()), is("first"));
+            }
+            try (InputStream inputStream = cached.get(MAIN_TENANT, null, uri)) {
+                assertThat(new String(inputStream.readAllBytes()), is("first"));
+            }
+
+            // overwritten by another instance, the cached file is stale
+            storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream("second".getBytes()));
+            try (InputStream inputStream = cached.get(MAIN_TENANT, null, uri)) {
+                assertThat(new String(inputStream.readAllBytes()), is("second"));
+            }
+        } finally {
+            cached.close();
+        }
+    }
+
+    @Test
+    void attributesCacheShouldBeInvalidatedByWrites() throws Exception {
+        MinioStorage cached = storageBuilder()
+            .attributesCacheTtl(Duration.ofHours(1))
+            .build();
+        cached.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/file.txt");
+            assertThat(cached.exists(MAIN_TENANT, null, uri), is(false));
+
+            cached.put(MAIN_TENANT, null, uri, new ByteArrayInputStream("content".getBytes()));
+            assertThat(cached.exists(MAIN_TENANT, null, uri), is(true));
+            assertThat(cached.getAttributes(MAIN_TENANT, null, uri).getSize(), is(7L));
+
+            // deleted by another instance, the cached attributes are served until they expire
+            storage.delete(MAIN_TENANT, null, uri);
+            assertThat(cached.exists(MAIN_TENANT, null, uri), is(true));
+
+            cached.delete(MAIN_TENANT, null, uri);
+            assertThat(cached.exists(MAIN_TENANT, null, uri), is(false));
+        } finally {
+            cached.close();
+        }
+    }
+
+    @Test
+    void asyncOperationsShouldMatchTheBlockingOnes() throws Exception {
+        MinioStorage minioStorage = (MinioStorage) storage;
+        String dir = "/" + IdUtils.create();
+        URI uri = URI.create(dir + "/async.txt");
+
+        URI stored = minioStorage.putAsync(MAIN_TENANT, null, uri, new StorageObject(Map.of("someKey", "value"), new ByteArrayInputStream("content".getBytes()))).get();
+        assertThat(stored, is(URI.create("kestra://" + uri.getPath())));
+
+        try (InputStream inputStream = minioStorage.getAsync(MAIN_TENANT, null, uri).get()) {
+            assertThat(new String(inputStream.readAllBytes()), is("content"));
+        }
+        assertThat(minioStorage.getAttributesAsync(MAIN_TENANT, null, uri).get().getSize(), is(7L));
+        assertThat(minioStorage.getAttributesAsync(MAIN_TENANT, null, URI.create(dir)).get().getType(), is(FileAttributes.FileType.Directory));
+        assertThat(minioStorage.listAsync(MAIN_TENANT, null, URI.create(dir), 10, null).get().items().size(), is(1));
+
+        assertThat(minioStorage.deleteAsync(MAIN_TENANT, null, uri).get(), is(true));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> minioStorage.getAttributesAsync(MAIN_TENANT, null, uri).get());
+        assertThat(exception.getCause() instanceof FileNotFoundException, is(true));
+    }
+
+    @Test
+    void operationsShouldBeMetered() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/metered.txt");
+            storage.put(MAIN_TENANT, null, uri, new ByteArrayInputStream("content".getBytes()));
+
+            assertThat(registry.get("kestra.storage.minio.operation").tag("operation", "put").timer().count(), is(1L));
+            double puts = registry.get("kestra.storage.minio.s3.requests").tag("call", "put").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+            assertThat(puts >= 1, is(true));
+            assertThat(registry.get("kestra.storage.minio.uploaded").counter().count() >= 7, is(true));
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void httpCallsShouldBeTimedByPhase() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        MinioStorage timed = storageBuilder()
+            .httpSlowRequestThreshold(Duration.ofNanos(1))
+            .build();
+        timed.init();
+        try {
+            URI uri = URI.create("/" + IdUtils.create() + "/timed.txt");
+            timed.put(MAIN_TENANT, null, uri, new ByteArrayInputStream("content".getBytes()));
+            try (InputStream inputStream = timed.get(MAIN_TENANT, null, uri)) {
+                assertThat(new String(inputStream.readAllBytes()), is("content"));
+            }
+
+            long calls = registry.get("kestra.storage.minio.http.call").timers().stream().mapToLong(Timer::count).sum();
+            assertThat(calls >= 2, is(true));
+            assertThat(registry.get("kestra.storage.minio.http.phase").tag("phase", "first.byte").timer().count() >= 2, is(true));
+        } finally {
+            timed.close();
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    private MinioStorage.MinioStorageBuilder storageBuilder() {
+        MinioStorage configured = (MinioStorage) storage;
+        return MinioStorage.builder()
+            .endpoint(configured.getEndpoint())
+            .port(configured.getPort())
+            .accessKey(configured.getAccessKey())
+            .secretKey(configured.getSecretKey())
+            .bucket(configured.getBucket())
+            .proxyConfiguration(configured.getProxyConfiguration());
+    }
 }